@@ -3,9 +3,14 @@ package com.gausul.secureqr;
 
 
 import org.springframework.boot.SpringApplication;
+import com.gausul.secureqr.config.RenderProperties;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@EnableConfigurationProperties(RenderProperties.class)
 public class SecureQrApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(SecureQrApplication.class, args);
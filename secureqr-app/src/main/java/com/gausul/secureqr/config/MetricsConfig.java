@@ -0,0 +1,60 @@
+package com.gausul.secureqr.config;
+
+import com.gausul.secureqr.service.CryptoService;
+import com.gausul.secureqr.service.LeafKeyCache;
+import com.gausul.secureqr.service.LeafKeyDirectory;
+import com.gausul.secureqr.service.RenderedQrCache;
+import com.gausul.secureqr.service.TrustAnchorRegistry;
+import com.gausul.secureqr.service.VerificationCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    // hit / miss / eviction counters of the parsed-key cache -> /actuator/metrics/cache.*{cache=secureqr.keys}
+    @Bean
+    public MeterBinder keyCacheMetrics(CryptoService cryptoService) {
+        return registry -> CaffeineCacheMetrics.monitor(registry, cryptoService.getKeyCache().nativeCache(), "secureqr.keys");
+    }
+
+    // memo of already-validated (issuerId, leaf pub, issuer signature) chains
+    @Bean
+    public MeterBinder chainCacheMetrics(TrustAnchorRegistry trustAnchorRegistry) {
+        return registry -> CaffeineCacheMetrics.monitor(registry, trustAnchorRegistry.chainCache(), "secureqr.chains");
+    }
+
+    // alias -> LeafKey read-through cache used by /generate
+    @Bean
+    public MeterBinder leafAliasCacheMetrics(LeafKeyCache leafKeyCache) {
+        return registry -> CaffeineCacheMetrics.monitor(registry, leafKeyCache.nativeCache(), "secureqr.leaf.alias");
+    }
+
+    // rendered QRs served again without signing / rendering (deterministic signing only)
+    @Bean
+    public MeterBinder renderedQrCacheMetrics(RenderedQrCache renderedQrCache) {
+        return registry -> CaffeineCacheMetrics.monitor(registry, renderedQrCache.nativeCache(), "secureqr.qr.rendered");
+    }
+
+    // verdicts of recently scanned QR texts (hit ratio; time saved is secureqr.verify.cache.time.saved)
+    @Bean
+    public MeterBinder verificationCacheMetrics(VerificationCache verificationCache) {
+        return registry -> CaffeineCacheMetrics.monitor(registry, verificationCache.nativeCache(), "secureqr.verify.results");
+    }
+
+    // leaves resolvable by key-id QRs without a DB read
+    @Bean
+    public MeterBinder leafDirectoryMetrics(LeafKeyDirectory leafKeyDirectory) {
+        return registry -> Gauge.builder("secureqr.leaf.directory.size", leafKeyDirectory, LeafKeyDirectory::size)
+                .register(registry);
+    }
+
+    // key-id lookups of ids the DB did not know, answered without reading it again
+    @Bean
+    public MeterBinder unknownLeafCacheMetrics(LeafKeyDirectory leafKeyDirectory) {
+        return registry -> CaffeineCacheMetrics.monitor(registry, leafKeyDirectory.unknownIds(), "secureqr.leaf.unknown");
+    }
+}
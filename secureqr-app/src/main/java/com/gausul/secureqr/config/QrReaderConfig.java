@@ -0,0 +1,20 @@
+package com.gausul.secureqr.config;
+
+import com.gausul.secureqr.verifier.QrReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class QrReaderConfig {
+
+    // QrReader lives in the Spring-free verifier module, so its limits are wired here
+    @Bean
+    public QrReader qrReader(@Value("${secureqr.qr.max-image-bytes:10485760}") long maxImageBytes,
+                             @Value("${secureqr.qr.max-image-pixels:40000000}") long maxImagePixels,
+                             @Value("${secureqr.qr.target-decode-pixels:2000000}") long targetDecodePixels,
+                             @Value("${secureqr.qr.max-decode-pixels:4000000}") long maxDecodePixels,
+                             @Value("${secureqr.qr.max-frame-bytes:33554432}") long maxFrameBytes) {
+        return new QrReader(maxImageBytes, maxImagePixels, targetDecodePixels, maxDecodePixels, maxFrameBytes);
+    }
+}
@@ -0,0 +1,68 @@
+package com.gausul.secureqr.config;
+
+import com.gausul.secureqr.service.RenderProfile;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * QR render profiles (secureqr.render.*).
+ * A request can name a profile; otherwise the alias' profile (aliases.&lt;alias&gt;) or default-profile is used.
+ * The built-in profiles below can be overridden or extended from application.properties.
+ */
+@ConfigurationProperties(prefix = "secureqr.render")
+public class RenderProperties {
+
+    private String defaultProfile = "default";
+
+    private Map<String, RenderProfile> profiles = new LinkedHashMap<>(Map.of(
+            "default", RenderProfile.DEFAULT.named("default"),
+            // small on-screen codes for cheap phone scanners
+            "compact", new RenderProfile("compact", ErrorCorrectionLevel.L, 4, 2, 15),
+            // printed tickets / labels that get scuffed
+            "print", new RenderProfile("print", ErrorCorrectionLevel.Q, 10, 4, 40),
+            // previous fixed behaviour: level H
+            "high", new RenderProfile("high", ErrorCorrectionLevel.H, 6, 4, 40)
+    ));
+
+    // alias -> profile name
+    private Map<String, String> aliases = new HashMap<>();
+
+    /**
+     * Profile for this request: the requested name, else the alias' configured profile, else the default.
+     */
+    public RenderProfile resolve(String requested, String alias) {
+        String name = requested != null && !requested.isBlank() ? requested
+                : aliases.getOrDefault(alias, defaultProfile);
+        RenderProfile profile = profiles.get(name);
+        if (profile == null) throw new IllegalArgumentException("unknown render profile: " + name);
+        return profile.named(name);
+    }
+
+    public String getDefaultProfile() {
+        return defaultProfile;
+    }
+
+    public void setDefaultProfile(String defaultProfile) {
+        this.defaultProfile = defaultProfile;
+    }
+
+    public Map<String, RenderProfile> getProfiles() {
+        return profiles;
+    }
+
+    public void setProfiles(Map<String, RenderProfile> profiles) {
+        this.profiles = profiles;
+    }
+
+    public Map<String, String> getAliases() {
+        return aliases;
+    }
+
+    public void setAliases(Map<String, String> aliases) {
+        this.aliases = aliases;
+    }
+}
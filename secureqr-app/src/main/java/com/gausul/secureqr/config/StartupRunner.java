@@ -1,6 +1,10 @@
 package com.gausul.secureqr.config;
 
 import com.gausul.secureqr.service.IssuerService;
+import com.gausul.secureqr.service.LeafKeyDirectory;
+import com.gausul.secureqr.service.LeafKeyPool;
+import com.gausul.secureqr.service.RevocationRegistry;
+import com.gausul.secureqr.service.TrustAnchorRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
@@ -12,10 +16,26 @@ public class StartupRunner implements ApplicationRunner {
     @Autowired
     private IssuerService issuerService;
 
+    @Autowired
+    private TrustAnchorRegistry trustAnchorRegistry;
+
+    @Autowired
+    private LeafKeyDirectory leafKeyDirectory;
+
+    @Autowired
+    private LeafKeyPool leafKeyPool;
+
+    @Autowired
+    private RevocationRegistry revocationRegistry;
+
     @Override
     public void run(ApplicationArguments args) throws Exception {
         System.out.println("🟡 StartupRunner executing...");
         var root = issuerService.initRootIssuerIfMissing("Root Issuer", "ROOT-ISSUER-1");
         System.out.println("✅ Root issuer ensured: " + root.getId() + " (" + root.getDisplayName() + ")");
+        trustAnchorRegistry.reload();
+        leafKeyDirectory.refresh(); // after the anchors, so chains validate against them
+        revocationRegistry.refresh(); // full load; incremental by sequence afterwards
+        leafKeyPool.warm(root); // pre-generate leaves in the background
     }
 }
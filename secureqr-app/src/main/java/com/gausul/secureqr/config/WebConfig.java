@@ -16,6 +16,7 @@ public class WebConfig implements WebMvcConfigurer {
                 )
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
+                .exposedHeaders("X-QR-Profile", "X-QR-Version", "X-QR-Modules", "X-QR-ECC", "ETag")
                 .allowCredentials(true)
                 .maxAge(3600);
     }
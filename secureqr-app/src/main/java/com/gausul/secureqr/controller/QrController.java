@@ -2,7 +2,7 @@ package com.gausul.secureqr.controller;
 
 
 import com.gausul.secureqr.service.QrGenerator;
-import com.gausul.secureqr.service.QrReader;
+import com.gausul.secureqr.verifier.QrReader;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
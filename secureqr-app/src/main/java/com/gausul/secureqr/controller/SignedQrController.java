@@ -0,0 +1,398 @@
+package com.gausul.secureqr.controller;
+
+
+import com.gausul.secureqr.model.LeafKey;
+import com.gausul.secureqr.model.Revocation;
+import com.gausul.secureqr.service.BatchQrService;
+import com.gausul.secureqr.service.BulkVerifyService;
+import com.gausul.secureqr.service.IssuerService;
+import com.gausul.secureqr.verifier.QrDecodeResult;
+import com.gausul.secureqr.service.QrOutputFormat;
+import com.gausul.secureqr.service.RenderedQr;
+import com.gausul.secureqr.verifier.QrReader;
+import com.gausul.secureqr.service.RevocationRegistry;
+import com.gausul.secureqr.service.SignedQrService;
+import com.gausul.secureqr.verifier.TrustBundle;
+import com.gausul.secureqr.service.TrustBundleService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/qr/signed")
+public class SignedQrController {
+
+    @Autowired
+    private SignedQrService signedQrService;
+
+    @Autowired
+    private IssuerService issuerService;
+
+    @Autowired
+    private QrReader qrReader;
+
+    @Autowired
+    private BatchQrService batchQrService;
+
+    @Autowired
+    private BulkVerifyService bulkVerifyService;
+
+    @Autowired
+    private RevocationRegistry revocationRegistry;
+
+    @Autowired
+    private TrustBundleService trustBundleService;
+
+    /**
+     * Dev: Issue a leaf keypair under alias (root signs leaf public key).
+     */
+    @PostMapping("/issue")
+    // Inside com.gausul.secureqr.service.IssuerService.java (or similar)
+
+    public Map<String, String> issue(@RequestParam String issuerId, @RequestParam String alias) throws Exception {
+
+        // Calls the service method, which must now return a LeafKey object.
+        LeafKey issued = issuerService.issueLeaf(issuerId, alias);
+
+        // Constructs the Map<String, String> response using the data from the LeafKey.
+        return Map.of(
+                "leafId", issued.getId().toString(),
+                "alias", issued.getAlias(),
+                "publicKey", Base64.getEncoder().encodeToString(issued.getPublicKey()),
+                "issuerSignature", Base64.getEncoder().encodeToString(issued.getIssuerSignature())
+        );
+    }
+
+    /**
+     * Revoke a leaf key (by alias or leafId): its QRs stop verifying (issuerValid=false) on every node
+     * within a key-change poll interval, and the alias can no longer issue.
+     */
+    @PostMapping("/revoke-leaf")
+    public Map<String, Object> revokeLeaf(@RequestParam(required = false) String alias,
+                                          @RequestParam(required = false) String leafId,
+                                          @RequestParam(required = false) String reason) {
+        try {
+            Revocation revocation;
+            if (leafId != null && !leafId.isBlank()) {
+                revocation = revocationRegistry.revokeLeaf(UUID.fromString(leafId), reason);
+            } else if (alias != null && !alias.isBlank()) {
+                revocation = revocationRegistry.revokeLeafByAlias(alias, reason);
+            } else {
+                return Map.of("error", "need alias or leafId");
+            }
+            return revocationResponse(revocation);
+        } catch (Exception e) {
+            return Map.of("error", errorMessage(e));
+        }
+    }
+
+    /**
+     * Revoke one issued QR by its audit record id (payloadValid=false from then on).
+     */
+    @PostMapping("/revoke-qr")
+    public Map<String, Object> revokeQr(@RequestParam String recordId,
+                                        @RequestParam(required = false) String reason) {
+        try {
+            return revocationResponse(revocationRegistry.revokeQr(UUID.fromString(recordId), reason));
+        } catch (Exception e) {
+            return Map.of("error", errorMessage(e));
+        }
+    }
+
+    /**
+     * Offline trust bundle for edge verifiers (see TrustBundle): roots, leaf keys and revocations,
+     * signed by the root issuer.
+     * GET /api/qr/signed/trust-bundle -> full bundle
+     * GET /api/qr/signed/trust-bundle?baseCreatedAt=..&baseLeafWatermark=..&baseRevocationSeq=.. -> delta
+     * against the bundle with those watermarks (TrustBundle.deltaQuery()).
+     */
+    @GetMapping("/trust-bundle")
+    public ResponseEntity<byte[]> exportTrustBundle(@RequestParam(required = false) Long baseCreatedAt,
+                                                    @RequestParam(required = false) Long baseLeafWatermark,
+                                                    @RequestParam(required = false) Long baseRevocationSeq) {
+        try {
+            byte[] bundle;
+            if (baseCreatedAt == null && baseLeafWatermark == null && baseRevocationSeq == null) {
+                bundle = trustBundleService.exportFull();
+            } else if (baseCreatedAt != null && baseLeafWatermark != null && baseRevocationSeq != null) {
+                bundle = trustBundleService.exportDelta(
+                        new TrustBundle.Watermarks(baseCreatedAt, baseLeafWatermark, baseRevocationSeq));
+            } else {
+                return ResponseEntity.badRequest().body(("delta needs baseCreatedAt, baseLeafWatermark and baseRevocationSeq").getBytes());
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(TrustBundle.MEDIA_TYPE))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename="
+                            + (baseCreatedAt == null ? "trust-bundle.sqtb" : "trust-bundle-delta.sqtb"))
+                    .body(bundle);
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(("error: " + errorMessage(e)).getBytes());
+        }
+    }
+
+    /**
+     * Generate signed QR and return it directly.
+     * You can either pass alias (dev) or pass leaf keys directly.
+     *
+     * POST /api/qr/signed/generate
+     * form-data:
+     * - data
+     * - alias (optional) OR leafPrivateKeyBase64 & leafPublicKeyBase64
+     * Output follows the Accept header (see QrOutputFormat): image/png (default), image/svg+xml,
+     * or application/vnd.secureqr.qr-matrix (packed module bits). format=png|svg|matrix overrides it.
+     * profile (optional) picks a render profile (secureqr.render.profiles); the chosen QR version,
+     * module count and error correction level are returned in X-QR-* headers.
+     * encoding (optional) json | compact | key-id picks the QR text format (see QrPayloadEncoding);
+     * the read endpoints accept all of them.
+     * With secureqr.qr.deterministic-signing=true the response carries an ETag; a matching If-None-Match
+     * gets 304 Not Modified without signing or rendering anything.
+     */
+    @PostMapping("/generate")
+    public ResponseEntity<byte[]> generateSignedQr(
+            @RequestParam String data,
+            @RequestParam(required = false) String alias,
+            @RequestParam(required = false) String leafPrivateKeyBase64,
+            @RequestParam(required = false) String leafPublicKeyBase64,
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) String profile,
+            @RequestParam(required = false) String encoding,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        try {
+            QrOutputFormat output = format != null ? QrOutputFormat.fromName(format) : QrOutputFormat.fromAccept(accept);
+            if (output == null) {
+                return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE)
+                        .body(("supported: image/png, image/svg+xml, application/vnd.secureqr.qr-matrix").getBytes());
+            }
+
+            RenderedQr qr;
+            String etag = null;
+            if (alias != null && !alias.isBlank()) {
+                etag = signedQrService.etagFor(data, alias, output, profile, encoding);
+                if (etag != null && etagMatches(ifNoneMatch, etag)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+                }
+                qr = signedQrService.createSignedQrFromAlias(data, alias, output, profile, encoding);
+            } else {
+                if (leafPrivateKeyBase64 == null || leafPublicKeyBase64 == null) {
+                    return ResponseEntity.badRequest().body(("need alias or leaf keys").getBytes());
+                }
+                // need issuerSignature for leafPub: in dev, assume external call created it and provided issuerSignature.
+                // But to keep simple: attempt to fetch issued record matching leafPub (search)
+                String issuerSig = null;
+                // quick search in issuerService issued map (not exposed) — instead rely on client to use alias or provide issuerSignature.
+                return ResponseEntity.badRequest().body(("for direct leaf keys, use alias issued by /issue or supply issuerSignature currently").getBytes());
+            }
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(output.getMediaType());
+            headers.setContentLength(qr.getBytes().length);
+            headers.add(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=qr-signed." + output.getExtension());
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            if (etag != null) headers.setETag(etag);
+            headers.add("X-QR-Profile", qr.getProfile());
+            headers.add("X-QR-Version", String.valueOf(qr.getVersion()));
+            headers.add("X-QR-Modules", String.valueOf(qr.getModuleCount()));
+            headers.add("X-QR-ECC", qr.getErrorCorrection().name());
+
+            return ResponseEntity.ok().headers(headers).body(qr.getBytes());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(("error: " + e.getMessage()).getBytes());
+        }
+    }
+
+    /**
+     * Batch issuance for one alias.
+     *
+     * POST /api/qr/signed/generate-batch?alias=...
+     * body: application/x-ndjson (a JSON string or {"data", "name"} per line) or text/csv (data[,name])
+     * format / profile / encoding as for /generate. Returns a ZIP streamed while the batch is signed and
+     * rendered in parallel; failed lines are listed in errors.ndjson inside the ZIP.
+     */
+    @PostMapping(value = "/generate-batch", consumes = {"application/x-ndjson", "text/csv"}, produces = "application/zip")
+    public ResponseEntity<StreamingResponseBody> generateSignedQrBatch(
+            @RequestParam String alias,
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) String profile,
+            @RequestParam(required = false) String encoding,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body
+    ) {
+        try {
+            QrOutputFormat output = format != null ? QrOutputFormat.fromName(format) : QrOutputFormat.PNG;
+            if (output == null) {
+                return ResponseEntity.badRequest().body(out -> out.write(("unknown format: " + format).getBytes()));
+            }
+            LeafKey leaf = batchQrService.resolveLeaf(alias);
+            BatchQrService.InputFormat inputFormat = BatchQrService.InputFormat.fromContentType(contentType);
+
+            StreamingResponseBody zip = out -> {
+                try {
+                    batchQrService.generateZip(leaf, alias, body, inputFormat, output, profile, encoding, out);
+                } catch (IOException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IOException(errorMessage(e), e);
+                }
+            };
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType("application/zip"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=qr-signed-" + alias + ".zip")
+                    .body(zip);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(out -> out.write(("error: " + errorMessage(e)).getBytes()));
+        }
+    }
+
+    /**
+     * Read PNG from server path, decode QR JSON, verify:
+     * - Verify payload signature using leaf pub
+     * - Verify issuerSignature by verifying leaf pub using the trusted root for issuerId (chain)
+     */
+    @PostMapping("/read-file")
+    public Map<String, Object> readAndVerifyFromFile(@RequestParam String filePath) {
+        try {
+            QrDecodeResult decoded = qrReader.decodeQr(filePath);
+            return withDecodeInfo(signedQrService.verifySignedQrText(decoded.getText()), decoded);
+        } catch (Exception e) {
+            return Map.of("error", errorMessage(e));
+        }
+    }
+
+    /**
+     * Upload PNG and verify (same logic).
+     * POST multipart/form-data with file
+     * Decoded straight from the upload stream (no temp file); oversized images are rejected up front.
+     */
+    @PostMapping(value = "/read-upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public Map<String, Object> readAndVerifyFromUpload(@RequestPart MultipartFile file) {
+        try {
+            if (file.getSize() > qrReader.getMaxImageBytes()) {
+                return Map.of("error", "image exceeds " + qrReader.getMaxImageBytes() + " bytes");
+            }
+
+            QrDecodeResult decoded;
+            try (InputStream in = file.getInputStream()) {
+                decoded = qrReader.decodeQr(in);
+            }
+
+            return withDecodeInfo(signedQrService.verifySignedQrText(decoded.getText()), decoded);
+        } catch (Exception e) {
+            return Map.of("error", errorMessage(e));
+        }
+    }
+
+    /**
+     * Bulk verify stored QR images.
+     * POST multipart/form-data with any number of "files" parts, or application/zip with the images as entries.
+     * Streams application/x-ndjson: one line per image as soon as it is verified (with its index and
+     * name; completion order), then {"summary": {...}}. Issuer chains are verified once per batch.
+     */
+    @PostMapping(value = "/verify-batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> verifyBatchFromUpload(@RequestPart("files") List<MultipartFile> files) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(out -> {
+                    try {
+                        bulkVerifyService.verifyFiles(files, out);
+                    } catch (IOException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new IOException(errorMessage(e), e);
+                    }
+                });
+    }
+
+    @PostMapping(value = "/verify-batch", consumes = "application/zip", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> verifyBatchFromZip(InputStream body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(out -> {
+                    try {
+                        bulkVerifyService.verifyZip(body, out);
+                    } catch (IOException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new IOException(errorMessage(e), e);
+                    }
+                });
+    }
+
+    /**
+     * Decode a raw luminance frame straight from a scanner (no PNG/JPEG round trip) and verify it.
+     * POST application/octet-stream body = frame bytes
+     * params: width, height, format (GRAY | YUV420 | RGB, default GRAY),
+     *         optional crop rectangle left, top, cropWidth, cropHeight (defaults to the whole frame)
+     * The body is streamed: only width * height (x3 for RGB) bytes are read, up to secureqr.qr.max-frame-bytes.
+     */
+    @PostMapping(value = "/read-luminance", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public Map<String, Object> readAndVerifyFromLuminance(
+            InputStream frame,
+            @RequestParam int width,
+            @RequestParam int height,
+            @RequestParam(defaultValue = "GRAY") QrReader.FrameFormat format,
+            @RequestParam(defaultValue = "0") int left,
+            @RequestParam(defaultValue = "0") int top,
+            @RequestParam(required = false) Integer cropWidth,
+            @RequestParam(required = false) Integer cropHeight
+    ) {
+        try {
+            QrDecodeResult decoded = qrReader.decodeFrame(frame, format, width, height, left, top,
+                    cropWidth != null ? cropWidth : width - left,
+                    cropHeight != null ? cropHeight : height - top);
+            return withDecodeInfo(signedQrService.verifySignedQrText(decoded.getText()), decoded);
+        } catch (Exception e) {
+            return Map.of("error", errorMessage(e));
+        }
+    }
+
+    // ZXing's NotFoundException (no QR in the image) carries no message
+    private static String errorMessage(Exception e) {
+        return e.getMessage() != null ? e.getMessage() : "no QR code found (" + e.getClass().getSimpleName() + ")";
+    }
+
+    // verification result + how QrReader decoded the image (tier, subsampling, ROI pass, peak raster bytes)
+    private static Map<String, Object> withDecodeInfo(Map<String, Object> verification, QrDecodeResult decoded) {
+        Map<String, Object> out = new LinkedHashMap<>(verification);
+        out.put("decodeTier", decoded.getTier().name());
+        out.put("decodeSubsampling", decoded.getSubsampling());
+        out.put("decodeRegionOfInterest", decoded.isRegionOfInterest());
+        out.put("decodePeakImageBytes", decoded.getPeakImageBytes());
+        return out;
+    }
+
+    private static Map<String, Object> revocationResponse(Revocation revocation) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("sequence", revocation.getId());
+        out.put("kind", revocation.getKind());
+        out.put("subjectId", revocation.getSubjectId().toString());
+        out.put("revokedAt", revocation.getRevokedAt().toString());
+        return out;
+    }
+
+    // If-None-Match: "*" or a list of (possibly weak) entity tags
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(etag)) return true;
+        }
+        return false;
+    }
+}
@@ -14,13 +14,11 @@ public class Issuer {
     @Column(name = "display_name")
     private String displayName;
 
-    @Lob
-    @Column(name = "public_key", columnDefinition = "text")
-    private String publicKeyBase64;
+    @Column(name = "public_key", columnDefinition = "VARBINARY(128)")
+    private byte[] publicKey; // X.509 DER
 
-    @Lob
-    @Column(name = "private_key_encrypted", columnDefinition = "text")
-    private String privateKeyEncrypted;
+    @Column(name = "private_key_encrypted", columnDefinition = "VARBINARY(1024)")
+    private byte[] privateKeyEncrypted; // PKCS#8 DER
 
     @Column(name = "created_at", nullable = false)
     private Instant createdAt = Instant.now();
@@ -45,19 +43,19 @@ public class Issuer {
         this.displayName = displayName;
     }
 
-    public String getPublicKeyBase64() {
-        return publicKeyBase64;
+    public byte[] getPublicKey() {
+        return publicKey;
     }
 
-    public void setPublicKeyBase64(String publicKeyBase64) {
-        this.publicKeyBase64 = publicKeyBase64;
+    public void setPublicKey(byte[] publicKey) {
+        this.publicKey = publicKey;
     }
 
-    public String getPrivateKeyEncrypted() {
+    public byte[] getPrivateKeyEncrypted() {
         return privateKeyEncrypted;
     }
 
-    public void setPrivateKeyEncrypted(String privateKeyEncrypted) {
+    public void setPrivateKeyEncrypted(byte[] privateKeyEncrypted) {
         this.privateKeyEncrypted = privateKeyEncrypted;
     }
 
@@ -0,0 +1,60 @@
+package com.gausul.secureqr.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * One row per key-material change (leaf issued / revoked / re-keyed), appended by the node making the
+ * change and polled by every node (KeyChangeLog) to invalidate its local caches.
+ */
+@Entity
+@Table(name = "key_changes",
+        indexes = {
+                @Index(name = "idx_key_change_at", columnList = "changed_at")
+        })
+public class KeyChange {
+
+    public static final String SCOPE_LEAF_ALIAS = "leaf-alias";
+    public static final String SCOPE_REVOCATION = "revocation";
+    public static final String SCOPE_ALL = "all";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false, updatable = false)
+    private Long id;
+
+    @Column(name = "scope", length = 32, nullable = false)
+    private String scope; // what kind of key changed, e.g. leaf-alias
+
+    @Column(name = "key_ref", nullable = true)
+    private String keyRef; // e.g. the alias; null for scope "all"
+
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+
+    public KeyChange() {
+        this.changedAt = Instant.now();
+    }
+
+    public KeyChange(String scope, String keyRef) {
+        this();
+        this.scope = scope;
+        this.keyRef = keyRef;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    public String getKeyRef() {
+        return keyRef;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+}
@@ -1,6 +1,8 @@
 package com.gausul.secureqr.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import java.time.Instant;
 import java.util.UUID;
 
@@ -13,8 +15,9 @@ import java.util.UUID;
 public class LeafKey {
 
     @Id
-    @Column(name = "id", nullable = false, updatable = false)
-    private String id;
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "id", columnDefinition = "BINARY(16)", nullable = false, updatable = false)
+    private UUID id; // UUIDv7 (time-ordered), see UuidV7
 
     @Column(name = "alias", nullable = true)
     private String alias; // optional human alias
@@ -22,23 +25,23 @@ public class LeafKey {
     @Column(name = "issuer_id", nullable = false)
     private String issuerId;
 
-    @Lob
-    @Column(name = "public_key", columnDefinition = "text", nullable = false)
-    private String publicKeyBase64;
+    @Column(name = "public_key", columnDefinition = "VARBINARY(128)", nullable = false)
+    private byte[] publicKey; // X.509 DER
 
-    @Lob
-    @Column(name = "private_key_encrypted", columnDefinition = "text")
-    private String privateKeyEncrypted; // encrypted PKCS8 base64; production: encrypt or avoid storing
+    @Column(name = "private_key_encrypted", columnDefinition = "VARBINARY(1024)")
+    private byte[] privateKeyEncrypted; // PKCS#8 DER; production: encrypt or avoid storing
 
-    @Lob
-    @Column(name = "issuer_signature", columnDefinition = "text", nullable = false)
-    private String issuerSignature; // root signature over leaf public
+    @Column(name = "issuer_signature", columnDefinition = "VARBINARY(80)", nullable = false)
+    private byte[] issuerSignature; // root DER ECDSA signature over leaf public
 
     @Column(name = "created_at", nullable = false)
     private Instant createdAt;
 
+    @Column(name = "revoked_at", nullable = true)
+    private Instant revokedAt; // set once revoked; verifiers see it through RevocationRegistry
+
     public LeafKey() {
-        this.id = UUID.randomUUID().toString();
+        this.id = UuidV7.generate();
         this.createdAt = Instant.now();
     }
 
@@ -48,7 +51,7 @@ public class LeafKey {
      * Gets the unique identifier of the key.
      * @return The key's ID.
      */
-    public String getId() {
+    public UUID getId() {
         return id;
     }
 
@@ -87,50 +90,50 @@ public class LeafKey {
     }
 
     /**
-     * Gets the Base64 representation of the public key.
-     * @return The public key in Base64 format.
+     * Gets the public key (X.509 DER).
+     * @return The encoded public key.
      */
-    public String getPublicKeyBase64() {
-        return publicKeyBase64;
+    public byte[] getPublicKey() {
+        return publicKey;
     }
 
     /**
-     * Sets the Base64 representation of the public key.
-     * @param publicKeyBase64 The new public key in Base64 format.
+     * Sets the public key (X.509 DER).
+     * @param publicKey The new encoded public key.
      */
-    public void setPublicKeyBase64(String publicKeyBase64) {
-        this.publicKeyBase64 = publicKeyBase64;
+    public void setPublicKey(byte[] publicKey) {
+        this.publicKey = publicKey;
     }
 
     /**
-     * Gets the encrypted private key (Base64).
-     * @return The encrypted private key string.
+     * Gets the encrypted private key (PKCS#8 DER).
+     * @return The encrypted private key bytes.
      */
-    public String getPrivateKeyEncrypted() {
+    public byte[] getPrivateKeyEncrypted() {
         return privateKeyEncrypted;
     }
 
     /**
-     * Sets the encrypted private key (Base64).
-     * @param privateKeyEncrypted The new encrypted private key string.
+     * Sets the encrypted private key (PKCS#8 DER).
+     * @param privateKeyEncrypted The new encrypted private key bytes.
      */
-    public void setPrivateKeyEncrypted(String privateKeyEncrypted) {
+    public void setPrivateKeyEncrypted(byte[] privateKeyEncrypted) {
         this.privateKeyEncrypted = privateKeyEncrypted;
     }
 
     /**
-     * Gets the issuer's signature over this leaf key's public key (Base64).
-     * @return The issuer signature string.
+     * Gets the issuer's DER signature over this leaf key's public key.
+     * @return The issuer signature bytes.
      */
-    public String getIssuerSignature() {
+    public byte[] getIssuerSignature() {
         return issuerSignature;
     }
 
     /**
-     * Sets the issuer's signature over this leaf key's public key (Base64).
-     * @param issuerSignature The new issuer signature string.
+     * Sets the issuer's DER signature over this leaf key's public key.
+     * @param issuerSignature The new issuer signature bytes.
      */
-    public void setIssuerSignature(String issuerSignature) {
+    public void setIssuerSignature(byte[] issuerSignature) {
         this.issuerSignature = issuerSignature;
     }
 
@@ -144,5 +147,25 @@ public class LeafKey {
 
     // Note: No setter for 'createdAt' as it's typically set during object creation and shouldn't be changed.
 
+    /**
+     * Gets the timestamp when this key was revoked.
+     * @return The revocation timestamp, or null if the key is not revoked.
+     */
+    public Instant getRevokedAt() {
+        return revokedAt;
+    }
+
+    /**
+     * Marks this key as revoked.
+     * @param revokedAt The revocation timestamp.
+     */
+    public void setRevokedAt(Instant revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+
+    public boolean isRevoked() {
+        return revokedAt != null;
+    }
+
     // endregion
 }
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.gausul.secureqr.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A revoked leaf key or individual signed QR. The id doubles as the revocation sequence number:
+ * verifiers load everything once and then only rows with a higher id (RevocationRegistry).
+ */
+@Entity
+@Table(name = "revocations",
+        indexes = {
+                @Index(name = "idx_revocation_fingerprint", columnList = "fingerprint"),
+                @Index(name = "idx_revocation_at", columnList = "revoked_at")
+        })
+public class Revocation {
+
+    public static final String KIND_LEAF = "leaf";
+    public static final String KIND_QR = "qr";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false, updatable = false)
+    private Long id;
+
+    @Column(name = "kind", length = 8, nullable = false)
+    private String kind; // leaf | qr
+
+    @Column(name = "fingerprint", columnDefinition = "BINARY(32)", nullable = false)
+    private byte[] fingerprint; // SHA-256 of the leaf public key / QR signature, see RevocationRegistry
+
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "subject_id", columnDefinition = "BINARY(16)", nullable = true)
+    private UUID subjectId; // LeafKey.id or SignedQrRecord.id, for reference
+
+    @Column(name = "reason", nullable = true)
+    private String reason;
+
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+
+    public Revocation() {
+        this.revokedAt = Instant.now();
+    }
+
+    public Revocation(String kind, byte[] fingerprint, UUID subjectId, String reason) {
+        this();
+        this.kind = kind;
+        this.fingerprint = fingerprint;
+        this.subjectId = subjectId;
+        this.reason = reason;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    public byte[] getFingerprint() {
+        return fingerprint;
+    }
+
+    public UUID getSubjectId() {
+        return subjectId;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public Instant getRevokedAt() {
+        return revokedAt;
+    }
+}
@@ -1,6 +1,10 @@
 package com.gausul.secureqr.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
+
 import java.time.Instant;
 import java.util.UUID;
 
@@ -9,22 +13,23 @@ import java.util.UUID;
         indexes = {
                 @Index(name = "idx_qr_alias", columnList = "leaf_key_id")
         })
-public class SignedQrRecord {
+public class SignedQrRecord implements Persistable<UUID> {
 
     @Id
-    @Column(name = "id", nullable = false, updatable = false)
-    private String id;
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "id", columnDefinition = "BINARY(16)", nullable = false, updatable = false)
+    private UUID id; // UUIDv7 (time-ordered), see UuidV7
 
-    @Column(name = "leaf_key_id", nullable = true)
-    private String leafKeyId; // reference to LeafKey.id
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "leaf_key_id", columnDefinition = "BINARY(16)", nullable = true)
+    private UUID leafKeyId; // reference to LeafKey.id
 
     @Lob
     @Column(name = "payload", columnDefinition = "text")
     private String payload;
 
-    @Lob
-    @Column(name = "signature", columnDefinition = "text")
-    private String signatureBase64;
+    @Column(name = "signature", columnDefinition = "VARBINARY(80)")
+    private byte[] signature; // DER ECDSA signature over payload
 
     @Column(name = "file_path", nullable = true)
     private String filePath; // optional if you store files on disk
@@ -32,18 +37,41 @@ public class SignedQrRecord {
     @Column(name = "created_at", nullable = false)
     private Instant createdAt;
 
+    // ids are assigned in the constructor, so Spring Data can't tell new rows from loaded ones by a null id;
+    // without this, save() merges (SELECT first) and Hibernate can't batch the inserts
+    @Transient
+    private boolean isNew = true;
+
     public SignedQrRecord() {
-        this.id = UUID.randomUUID().toString();
+        this.id = UuidV7.generate();
         this.createdAt = Instant.now();
     }
 
+    // Rebuilds a record with its original id / timestamp (audit journal replay).
+    public SignedQrRecord(UUID id, Instant createdAt) {
+        this.id = id;
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
     // region Getters and Setters
 
     /**
      * Gets the unique identifier of the record.
      * @return The record's ID.
      */
-    public String getId() {
+    @Override
+    public UUID getId() {
         return id;
     }
 
@@ -53,7 +81,7 @@ public class SignedQrRecord {
      * Gets the ID of the leaf key used to sign this QR record.
      * @return The leaf key ID.
      */
-    public String getLeafKeyId() {
+    public UUID getLeafKeyId() {
         return leafKeyId;
     }
 
@@ -61,7 +89,7 @@ public class SignedQrRecord {
      * Sets the ID of the leaf key used to sign this QR record.
      * @param leafKeyId The new leaf key ID.
      */
-    public void setLeafKeyId(String leafKeyId) {
+    public void setLeafKeyId(UUID leafKeyId) {
         this.leafKeyId = leafKeyId;
     }
 
@@ -82,19 +110,19 @@ public class SignedQrRecord {
     }
 
     /**
-     * Gets the Base64 representation of the digital signature.
-     * @return The signature string.
+     * Gets the DER encoding of the digital signature.
+     * @return The signature bytes.
      */
-    public String getSignatureBase64() {
-        return signatureBase64;
+    public byte[] getSignature() {
+        return signature;
     }
 
     /**
-     * Sets the Base64 representation of the digital signature.
-     * @param signatureBase64 The new signature string.
+     * Sets the DER encoding of the digital signature.
+     * @param signature The new signature bytes.
      */
-    public void setSignatureBase64(String signatureBase64) {
-        this.signatureBase64 = signatureBase64;
+    public void setSignature(byte[] signature) {
+        this.signature = signature;
     }
 
     /**
@@ -0,0 +1,26 @@
+package com.gausul.secureqr.repository;
+
+import com.gausul.secureqr.model.KeyChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface KeyChangeRepository extends JpaRepository<KeyChange, Long> {
+
+    @Query("select coalesce(max(c.id), 0) from KeyChange c")
+    long findMaxId();
+
+    // new rows, plus recent ones: an id allocated before lastId may commit after it was read
+    @Query("select c from KeyChange c where c.id > :lastId or c.changedAt > :since order by c.id")
+    List<KeyChange> findChangesSince(@Param("lastId") long lastId, @Param("since") Instant since);
+
+    @Modifying
+    @Transactional
+    @Query("delete from KeyChange c where c.changedAt < :before")
+    int deleteOlderThan(@Param("before") Instant before);
+}
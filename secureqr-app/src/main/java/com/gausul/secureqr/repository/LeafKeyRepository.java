@@ -4,8 +4,14 @@ package com.gausul.secureqr.repository;
 import com.gausul.secureqr.model.LeafKey;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
-public interface LeafKeyRepository extends JpaRepository<LeafKey, String> {
+public interface LeafKeyRepository extends JpaRepository<LeafKey, UUID> {
     Optional<LeafKey> findByAlias(String alias);
+
+    // incremental LeafKeyDirectory refresh (>= so keys sharing the watermark timestamp aren't missed)
+    List<LeafKey> findByCreatedAtGreaterThanEqualOrderByCreatedAtAsc(Instant createdAt);
 }
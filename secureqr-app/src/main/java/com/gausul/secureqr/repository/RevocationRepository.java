@@ -0,0 +1,16 @@
+package com.gausul.secureqr.repository;
+
+import com.gausul.secureqr.model.Revocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface RevocationRepository extends JpaRepository<Revocation, Long> {
+
+    // rows after the last sequence seen, plus recent ones: an id allocated before lastId may commit after it was read
+    @Query("select r from Revocation r where r.id > :lastId or r.revokedAt > :since order by r.id")
+    List<Revocation> findRevocationsSince(@Param("lastId") long lastId, @Param("since") Instant since);
+}
@@ -4,6 +4,8 @@ package com.gausul.secureqr.repository;
 import com.gausul.secureqr.model.SignedQrRecord;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-public interface SignedQrRecordRepository extends JpaRepository<SignedQrRecord, String> {
+import java.util.UUID;
+
+public interface SignedQrRecordRepository extends JpaRepository<SignedQrRecord, UUID> {
     // custom queries if needed
 }
@@ -0,0 +1,274 @@
+package com.gausul.secureqr.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gausul.secureqr.config.RenderProperties;
+import com.gausul.secureqr.model.LeafKey;
+import com.gausul.secureqr.model.SignedQrRecord;
+import com.gausul.secureqr.verifier.QrPayloadEncoding;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Batch signed-QR issuance for one alias: reads an NDJSON or CSV stream of payloads, signs and
+ * renders them on the qrWorkerPool, and streams the images into a ZIP as they complete.
+ *
+ * - the leaf, its parsed private key and the render profile are resolved once per batch
+ * - at most in-flight items are queued or rendered at a time, so memory is bounded regardless of
+ *   batch size, and entries are written in input order
+ * - audit rows go through SignedQrAuditWriter in JDBC batches (up to audit-batch-size, at most
+ *   in-flight rows), each written before its QRs go into the ZIP: a QR the client receives is on record
+ * - items that fail (e.g. payload too large for the profile) are listed in errors.ndjson at the end
+ */
+@Service
+public class BatchQrService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchQrService.class);
+
+    public enum InputFormat {
+        // one payload per line: a JSON string, or {"data": "...", "name": "..."}
+        NDJSON,
+        // data[,name]; RFC 4180 quoting within a line; an optional "data" header line is skipped
+        CSV;
+
+        public static InputFormat fromContentType(String contentType) {
+            if (contentType != null && contentType.toLowerCase().startsWith("text/csv")) return CSV;
+            return NDJSON;
+        }
+    }
+
+    @Autowired private SignedQrService signedQrService;
+    @Autowired private QrGenerator qrGenerator;
+    @Autowired private IssuerService issuerService;
+    @Autowired private RenderProperties renderProperties;
+    @Autowired private SignedQrAuditWriter auditWriter;
+
+    @Autowired
+    @Qualifier("qrWorkerPool")
+    private ExecutorService workers;
+
+    @Value("${secureqr.batch.in-flight:64}")
+    private int inFlight;
+
+    @Value("${secureqr.batch.audit-batch-size:500}")
+    private int auditBatchSize;
+
+    @Value("${secureqr.batch.max-items:100000}")
+    private int maxItems;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    // resolved up front so a bad alias fails the request before the ZIP starts streaming
+    public LeafKey resolveLeaf(String alias) {
+        LeafKey lk = issuerService.getLeafByAlias(alias);
+        if (lk == null) throw new IllegalArgumentException("alias not found");
+        if (lk.isRevoked()) throw new IllegalArgumentException("leaf key revoked");
+        return lk;
+    }
+
+    public void generateZip(LeafKey leaf, String alias, InputStream input, InputFormat inputFormat,
+                            QrOutputFormat format, String profile, String encoding, OutputStream out) throws Exception {
+        RenderProfile renderProfile = renderProperties.resolve(profile, alias);
+        QrPayloadEncoding payloadEncoding = signedQrService.resolveEncoding(encoding);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        ZipOutputStream zip = new ZipOutputStream(out);
+        Deque<Future<Item>> pending = new ArrayDeque<>();
+        // rendered items waiting for their audit batch; capped at in-flight so memory stays bounded
+        int groupSize = Math.max(1, Math.min(auditBatchSize, inFlight));
+        List<Item> ready = new ArrayList<>(groupSize);
+        List<String> errors = new ArrayList<>();
+        Set<String> entryNames = new HashSet<>();
+
+        int index = 0;
+        int written = 0;
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                if (inputFormat == InputFormat.CSV && index == 0 && line.trim().toLowerCase().matches("\"?data\"?(,.*)?")) continue;
+                if (index >= maxItems) throw new IllegalArgumentException("batch exceeds " + maxItems + " items");
+
+                int itemIndex = ++index;
+                String[] item;
+                try {
+                    item = parseLine(line, inputFormat);
+                } catch (Exception ex) {
+                    pending.add(CompletableFuture.completedFuture(new Item(itemIndex, null, null, null, "unparseable line")));
+                    continue;
+                }
+                pending.add(workers.submit(() -> render(itemIndex, item[0], item[1], leaf, payloadEncoding, format, renderProfile)));
+
+                if (pending.size() >= inFlight) {
+                    collect(pending.poll(), ready, errors);
+                    if (ready.size() >= groupSize) written += writeEntries(ready, zip, entryNames, format);
+                }
+            }
+            while (!pending.isEmpty()) {
+                collect(pending.poll(), ready, errors);
+                if (ready.size() >= groupSize) written += writeEntries(ready, zip, entryNames, format);
+            }
+            written += writeEntries(ready, zip, entryNames, format);
+        } finally {
+            // client went away or the batch was rejected: don't keep rendering for nobody.
+            // Nothing to record here: rows are written before their entries, and QRs still in ready never left.
+            pending.forEach(future -> future.cancel(true));
+        }
+
+        if (!errors.isEmpty()) {
+            zip.putNextEntry(new ZipEntry("errors.ndjson"));
+            for (String error : errors) {
+                zip.write(error.getBytes(StandardCharsets.UTF_8));
+                zip.write('\n');
+            }
+            zip.closeEntry();
+        }
+        zip.finish();
+        zip.flush();
+        log.info("Batch for alias {}: {} QRs written, {} failed", alias, written, errors.size());
+    }
+
+    private static final class Item {
+        final int index;
+        final String name;
+        final byte[] bytes;
+        final SignedQrRecord record;
+        final String error;
+
+        Item(int index, String name, byte[] bytes, SignedQrRecord record, String error) {
+            this.index = index;
+            this.name = name;
+            this.bytes = bytes;
+            this.record = record;
+            this.error = error;
+        }
+    }
+
+    // runs on a worker: sign + render one payload
+    private Item render(int index, String data, String name, LeafKey leaf, QrPayloadEncoding encoding,
+                        QrOutputFormat format, RenderProfile profile) {
+        try {
+            if (data == null) throw new IllegalArgumentException("missing data");
+            IssuedQr issued = signedQrService.issue(leaf, data, encoding);
+            byte[] bytes = qrGenerator.render(issued.getText(), format, profile).getBytes();
+            return new Item(index, name, bytes, issued.getRecord(), null);
+        } catch (Exception ex) {
+            return new Item(index, name, null, null, ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName());
+        }
+    }
+
+    // waits for the oldest item: failures go to errors, rendered QRs wait in ready for their audit batch
+    private void collect(Future<Item> future, List<Item> ready, List<String> errors) throws Exception {
+        Item item;
+        try {
+            item = future.get();
+        } catch (ExecutionException ex) {
+            // render() catches Exceptions itself, so this is an Error on the worker
+            throw new IllegalStateException("batch worker failed", ex.getCause());
+        }
+        if (item.error != null) {
+            errors.add(mapper.writeValueAsString(Map.of("line", item.index, "error", item.error)));
+        } else {
+            ready.add(item);
+        }
+    }
+
+    // audit rows first (one JDBC batch), then the entries (STORED: PNG / SVG bodies don't deflate further)
+    private int writeEntries(List<Item> ready, ZipOutputStream zip, Set<String> entryNames, QrOutputFormat format) throws Exception {
+        if (ready.isEmpty()) return 0;
+        List<SignedQrRecord> audit = new ArrayList<>(ready.size());
+        for (Item item : ready) audit.add(item.record);
+        auditWriter.writeBatch(audit);
+
+        for (Item item : ready) {
+            CRC32 crc = new CRC32();
+            crc.update(item.bytes);
+            ZipEntry entry = new ZipEntry(entryName(item, format, entryNames));
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(item.bytes.length);
+            entry.setCompressedSize(item.bytes.length);
+            entry.setCrc(crc.getValue());
+            zip.putNextEntry(entry);
+            zip.write(item.bytes);
+            zip.closeEntry();
+        }
+        int written = ready.size();
+        ready.clear();
+        return written;
+    }
+
+    // client-supplied name (no directories), else the 1-based line number; duplicates fall back to the number
+    private static String entryName(Item item, QrOutputFormat format, Set<String> used) {
+        String base = item.name != null ? item.name.replaceAll("[/\\\\:]", "_").trim() : "";
+        if (base.isEmpty() || !used.add(base)) {
+            base = String.format("%06d", item.index);
+            used.add(base);
+        }
+        return base + "." + format.getExtension();
+    }
+
+    // -> {data, name}; name may be null
+    private String[] parseLine(String line, InputFormat inputFormat) throws Exception {
+        if (inputFormat == InputFormat.NDJSON) {
+            JsonNode node = mapper.readTree(line);
+            if (node.isTextual()) return new String[]{node.asText(), null};
+            JsonNode data = node.get("data");
+            JsonNode name = node.get("name");
+            return new String[]{data != null ? data.asText() : null, name != null ? name.asText() : null};
+        }
+        List<String> fields = parseCsv(line);
+        return new String[]{fields.get(0), fields.size() > 1 ? fields.get(1) : null};
+    }
+
+    private static List<String> parseCsv(String line) {
+        List<String> fields = new ArrayList<>(2);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,65 @@
+package com.gausul.secureqr.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over SHA-256 fingerprints. The fingerprint is already uniformly distributed, so its
+ * first 16 bytes give the two base hashes for double hashing (h1 + i * h2) without hashing again.
+ * Safe for one writer and any number of concurrent readers (bits are set with atomic ORs).
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final int capacity;
+
+    /**
+     * @param capacity          insertions the filter is sized for
+     * @param falsePositiveRate target false-positive probability at capacity
+     */
+    public BloomFilter(int capacity, double falsePositiveRate) {
+        this.capacity = Math.max(capacity, 1);
+        long m = (long) Math.ceil(-this.capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (m + 63) >>> 6);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / this.capacity * Math.log(2)));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public void add(byte[] fingerprint) {
+        long h1 = readLong(fingerprint, 0);
+        long h2 = readLong(fingerprint, 8);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) break;
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    // false = definitely not added; true = possibly added
+    public boolean mightContain(byte[] fingerprint) {
+        long h1 = readLong(fingerprint, 0);
+        long h2 = readLong(fingerprint, 8);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    private static long readLong(byte[] b, int off) {
+        long v = 0;
+        for (int i = 0; i < 8; i++) v = (v << 8) | (b[off + i] & 0xFF);
+        return v;
+    }
+}
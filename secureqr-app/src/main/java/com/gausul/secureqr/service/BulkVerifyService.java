@@ -0,0 +1,213 @@
+package com.gausul.secureqr.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gausul.secureqr.verifier.QrDecodeResult;
+import com.gausul.secureqr.verifier.QrReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Bulk verification of stored QR images (multipart files or a ZIP), for reconciliation jobs.
+ *
+ * Images are decoded and verified on the qrWorkerPool with at most in-flight outstanding; each
+ * result is written as one NDJSON line as soon as it completes (completion order, tagged with the
+ * input index and name), followed by a summary line. Issuer chains are verified once per distinct
+ * (issuerId, leaf key, issuer signature) in the batch, however many images share that leaf.
+ */
+@Service
+public class BulkVerifyService {
+
+    @Autowired private QrReader qrReader;
+    @Autowired private SignedQrService signedQrService;
+    @Autowired private TrustAnchorRegistry trustAnchorRegistry;
+
+    @Autowired
+    @Qualifier("qrWorkerPool")
+    private ExecutorService workers;
+
+    @Value("${secureqr.batch.in-flight:64}")
+    private int inFlight;
+
+    @Value("${secureqr.batch.max-items:100000}")
+    private int maxItems;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public void verifyFiles(List<MultipartFile> files, OutputStream out) throws Exception {
+        Batch batch = new Batch(out);
+        try {
+            for (MultipartFile file : files) {
+                if (file.getSize() > qrReader.getMaxImageBytes()) {
+                    batch.reject(file.getOriginalFilename(), "image exceeds " + qrReader.getMaxImageBytes() + " bytes");
+                } else {
+                    batch.submit(file.getOriginalFilename(), file.getBytes());
+                }
+            }
+            batch.finish();
+        } finally {
+            batch.cancel();
+        }
+    }
+
+    // streams the ZIP entry by entry; only in-flight images are held in memory
+    public void verifyZip(InputStream zipStream, OutputStream out) throws Exception {
+        Batch batch = new Batch(out);
+        try (ZipInputStream zip = new ZipInputStream(zipStream)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory()) continue;
+                byte[] image = readEntry(zip);
+                if (image == null) {
+                    batch.reject(entry.getName(), "image exceeds " + qrReader.getMaxImageBytes() + " bytes");
+                } else {
+                    batch.submit(entry.getName(), image);
+                }
+            }
+            batch.finish();
+        } finally {
+            batch.cancel();
+        }
+    }
+
+    // null when the entry is larger than QrReader accepts
+    private byte[] readEntry(ZipInputStream zip) throws IOException {
+        long max = qrReader.getMaxImageBytes();
+        byte[] bytes = zip.readNBytes((int) Math.min(Integer.MAX_VALUE - 8, max + 1));
+        if (bytes.length > max) {
+            zip.skip(Long.MAX_VALUE);
+            return null;
+        }
+        return bytes;
+    }
+
+    private final class Batch {
+        private final OutputStream out;
+        private final CompletionService<Map<String, Object>> completion = new ExecutorCompletionService<>(workers);
+        // (issuerId, leafPub, issuerSignature) -> chain result, computed once per batch
+        private final Map<ChainKey, Boolean> chains = new ConcurrentHashMap<>();
+        private final AtomicInteger chainVerifications = new AtomicInteger();
+        private final Map<Future<Map<String, Object>>, Boolean> outstanding = new ConcurrentHashMap<>();
+
+        private int submitted;
+        private int pending;
+        private int valid;
+        private int invalid;
+        private int errors;
+
+        Batch(OutputStream out) {
+            this.out = out;
+        }
+
+        void submit(String name, byte[] image) throws Exception {
+            int index = next();
+            outstanding.put(completion.submit(() -> verify(index, name, image)), Boolean.TRUE);
+            pending++;
+            if (pending >= inFlight) write(completion.take());
+            // write whatever else is already done without waiting
+            Future<Map<String, Object>> done;
+            while ((done = completion.poll()) != null) write(done);
+        }
+
+        void reject(String name, String error) throws IOException {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("index", next());
+            line.put("name", name);
+            line.put("error", error);
+            errors++;
+            writeLine(line);
+        }
+
+        void finish() throws Exception {
+            while (pending > 0) write(completion.take());
+
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("total", submitted);
+            summary.put("valid", valid);
+            summary.put("invalid", invalid);
+            summary.put("errors", errors);
+            summary.put("distinctChains", chains.size());
+            summary.put("chainVerifications", chainVerifications.get());
+            writeLine(Map.of("summary", summary));
+        }
+
+        void cancel() {
+            outstanding.keySet().forEach(future -> future.cancel(true));
+        }
+
+        private int next() {
+            if (submitted >= maxItems) throw new IllegalArgumentException("batch exceeds " + maxItems + " items");
+            return submitted++;
+        }
+
+        // runs on a worker
+        private Map<String, Object> verify(int index, String name, byte[] image) {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("index", index);
+            line.put("name", name);
+            try {
+                QrDecodeResult decoded = qrReader.decodeQr(image);
+                line.putAll(signedQrService.verifySignedQrText(decoded.getText(), this::verifyChain));
+                line.put("decodeTier", decoded.getTier().name());
+            } catch (Exception ex) {
+                line.put("error", ex.getMessage() != null ? ex.getMessage() : "no QR code found (" + ex.getClass().getSimpleName() + ")");
+            }
+            return line;
+        }
+
+        // per-batch memo in front of the registry's (positive-only) memo: failed chains are also computed once
+        private boolean verifyChain(String issuerId, byte[] leafPub, byte[] issuerSignature) {
+            return chains.computeIfAbsent(new ChainKey(issuerId, leafPub, issuerSignature), ignored -> {
+                chainVerifications.incrementAndGet();
+                try {
+                    return trustAnchorRegistry.verifyChain(issuerId, leafPub, issuerSignature);
+                } catch (Exception ex) {
+                    return Boolean.FALSE;
+                }
+            });
+        }
+
+        private void write(Future<Map<String, Object>> future) throws Exception {
+            outstanding.remove(future);
+            pending--;
+            Map<String, Object> line;
+            try {
+                line = future.get();
+            } catch (ExecutionException ex) {
+                throw new IllegalStateException("bulk verify worker failed", ex.getCause());
+            }
+            if (line.containsKey("error")) {
+                errors++;
+            } else if (Boolean.TRUE.equals(line.get("payloadValid")) && Boolean.TRUE.equals(line.get("issuerValid"))) {
+                valid++;
+            } else {
+                invalid++;
+            }
+            writeLine(line);
+        }
+
+        private void writeLine(Map<String, Object> line) throws IOException {
+            out.write(mapper.writeValueAsBytes(line));
+            out.write('\n');
+            out.flush(); // let the client see progress while the batch continues
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.gausul.secureqr.service;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * (issuerId, leaf public key, issuer signature) as a map key for chain memos, compared by content.
+ */
+public final class ChainKey {
+
+    private final String issuerId;
+    private final byte[] leafPublicKey;
+    private final byte[] issuerSignature;
+    private final int hash;
+
+    public ChainKey(String issuerId, byte[] leafPublicKey, byte[] issuerSignature) {
+        this.issuerId = issuerId;
+        this.leafPublicKey = leafPublicKey;
+        this.issuerSignature = issuerSignature;
+        this.hash = 31 * (31 * Objects.hashCode(issuerId) + Arrays.hashCode(leafPublicKey)) + Arrays.hashCode(issuerSignature);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ChainKey)) return false;
+        ChainKey other = (ChainKey) o;
+        return hash == other.hash
+                && Objects.equals(issuerId, other.issuerId)
+                && Arrays.equals(leafPublicKey, other.leafPublicKey)
+                && Arrays.equals(issuerSignature, other.issuerSignature);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,132 @@
+package com.gausul.secureqr.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.gausul.secureqr.model.UuidV7;
+import com.gausul.secureqr.verifier.Base45;
+import com.gausul.secureqr.verifier.EcKeys;
+import com.gausul.secureqr.verifier.SignedQrDecoder;
+import com.gausul.secureqr.verifier.SignedQrEnvelope;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.zip.Deflater;
+
+/**
+ * Compact signed-QR envelope: "SQ1:" + Base45(CBOR array)
+ *
+ *   [version, flags, leafKey, issuerId, issuerSignature, signature, payload]
+ *   [version, flags | KEY_ID, leafId, signature, payload]
+ *
+ * - leafKey: 33-byte compressed P-256 point (instead of 91-byte X.509 in Base64)
+ * - issuerSignature / signature: raw r||s, 64 bytes each (instead of DER in Base64)
+ * - payload: UTF-8, raw deflate when that is smaller (flag bit 0)
+ * - leafId: 16-byte UUID of the leaf key (flag bit 1); key and chain come from LeafKeyDirectory
+ *
+ * Prefix and Base45 are all in the QR alphanumeric alphabet, so the whole text encodes in
+ * alphanumeric mode. Decoding yields the same SignedQrEnvelope as the JSON form (X.509 / DER bytes),
+ * so verification and the chain memo are shared between both formats; key-id envelopes carry
+ * payload, signature and leafId only. Decoding is SignedQrDecoder in the verifier module.
+ */
+@Component
+public class CompactQrCodec {
+
+    public static final String PREFIX = SignedQrDecoder.COMPACT_PREFIX;
+
+    private static final int VERSION = SignedQrDecoder.VERSION;
+    private static final int FLAG_DEFLATED = SignedQrDecoder.FLAG_DEFLATED;
+    private static final int FLAG_KEY_ID = SignedQrDecoder.FLAG_KEY_ID;
+
+    private final CBORFactory cbor = new CBORFactory();
+
+    private final EnginePool<Deflater> deflaters =
+            new EnginePool<>(() -> new Deflater(Deflater.BEST_COMPRESSION, true), Deflater::reset, Runtime.getRuntime().availableProcessors() * 2);
+
+    private final CryptoService cryptoService;
+    // decoding lives in the verifier module; leaf points go through the app's key cache
+    private final SignedQrDecoder decoder;
+
+    @Autowired
+    public CompactQrCodec(CryptoService cryptoService) {
+        this.cryptoService = cryptoService;
+        this.decoder = new SignedQrDecoder(cryptoService::decompressEcPublicKey);
+    }
+
+    public static boolean isCompact(String text) {
+        return SignedQrDecoder.isCompact(text);
+    }
+
+    /**
+     * @param payload         signed data
+     * @param signature       DER ECDSA signature over payload
+     * @param leafPub         X.509 DER leaf public key
+     * @param issuerId        issuer that signed leafPub
+     * @param issuerSignature DER ECDSA signature over leafPub
+     */
+    public String encode(String payload, byte[] signature, byte[] leafPub, String issuerId, byte[] issuerSignature) throws Exception {
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        byte[] deflated = deflate(payloadBytes);
+        boolean useDeflated = deflated.length < payloadBytes.length;
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(payloadBytes.length + 192);
+        try (JsonGenerator gen = cbor.createGenerator(out)) {
+            gen.writeStartArray();
+            gen.writeNumber(VERSION);
+            gen.writeNumber(useDeflated ? FLAG_DEFLATED : 0);
+            gen.writeBinary(cryptoService.compressEcPublicKey(leafPub));
+            gen.writeString(issuerId);
+            gen.writeBinary(EcKeys.derToRaw(issuerSignature));
+            gen.writeBinary(EcKeys.derToRaw(signature));
+            gen.writeBinary(useDeflated ? deflated : payloadBytes);
+            gen.writeEndArray();
+        }
+        return PREFIX + Base45.encode(out.toByteArray());
+    }
+
+    /**
+     * Key-id envelope: only the leaf id (a UUID) and the payload signature travel in the QR.
+     * @param signature DER ECDSA signature over payload
+     */
+    public String encodeKeyId(String payload, byte[] signature, UUID leafId) throws Exception {
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        byte[] deflated = deflate(payloadBytes);
+        boolean useDeflated = deflated.length < payloadBytes.length;
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(payloadBytes.length + 96);
+        try (JsonGenerator gen = cbor.createGenerator(out)) {
+            gen.writeStartArray();
+            gen.writeNumber(VERSION);
+            gen.writeNumber(FLAG_KEY_ID | (useDeflated ? FLAG_DEFLATED : 0));
+            gen.writeBinary(UuidV7.toBytes(leafId));
+            gen.writeBinary(EcKeys.derToRaw(signature));
+            gen.writeBinary(useDeflated ? deflated : payloadBytes);
+            gen.writeEndArray();
+        }
+        return PREFIX + Base45.encode(out.toByteArray());
+    }
+
+    /**
+     * Decodes a compact QR text; signatures come back as DER and the leaf key as X.509 DER.
+     */
+    public SignedQrEnvelope decode(String text) throws Exception {
+        return decoder.decodeCompact(text);
+    }
+
+    private byte[] deflate(byte[] data) throws Exception {
+        return deflaters.with(deflater -> {
+            deflater.setInput(data);
+            deflater.finish();
+            byte[] out = new byte[data.length + 64];
+            int len = 0;
+            while (!deflater.finished() && len < out.length) {
+                len += deflater.deflate(out, len, out.length - len);
+            }
+            // didn't fit in input size + slack: not worth it, caller keeps the plain bytes
+            return deflater.finished() ? Arrays.copyOf(out, len) : data;
+        });
+    }
+}
@@ -0,0 +1,68 @@
+package com.gausul.secureqr.service;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyAgreement;
+import java.security.KeyFactory;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Pooled JCA engines used by CryptoService, so the hot paths skip the provider lookup and
+ * the engine allocation that getInstance() costs on every call.
+ * Signature / Cipher / KeyAgreement are re-initialised by every caller (init* resets them);
+ * MessageDigest is reset on release.
+ */
+public class CryptoEngines {
+
+    private final int maxIdle;
+
+    private final ConcurrentMap<String, EnginePool<Signature>> signatures = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, EnginePool<KeyFactory>> keyFactories = new ConcurrentHashMap<>();
+    private final EnginePool<Cipher> aesGcm;
+    private final EnginePool<KeyAgreement> ecdh;
+    private final EnginePool<MessageDigest> sha256;
+    private final EnginePool<KeyPairGenerator> ecKeyPairGenerators;
+
+    public CryptoEngines(int maxIdle) {
+        this.maxIdle = maxIdle;
+        this.aesGcm = new EnginePool<>(() -> Cipher.getInstance("AES/GCM/NoPadding"), c -> { }, maxIdle);
+        this.ecdh = new EnginePool<>(() -> KeyAgreement.getInstance("ECDH"), ka -> { }, maxIdle);
+        this.sha256 = new EnginePool<>(() -> MessageDigest.getInstance("SHA-256"), MessageDigest::reset, maxIdle);
+        this.ecKeyPairGenerators = new EnginePool<>(() -> {
+            KeyPairGenerator kpg = KeyPairGenerator.getInstance("EC");
+            kpg.initialize(new ECGenParameterSpec("secp256r1")); // P-256
+            return kpg;
+        }, kpg -> { }, maxIdle);
+    }
+
+    public EnginePool<Signature> signature(String algorithm) {
+        return signatures.computeIfAbsent(algorithm,
+                alg -> new EnginePool<>(() -> Signature.getInstance(alg), s -> { }, maxIdle));
+    }
+
+    public EnginePool<KeyFactory> keyFactory(String algorithm) {
+        return keyFactories.computeIfAbsent(algorithm,
+                alg -> new EnginePool<>(() -> KeyFactory.getInstance(alg), kf -> { }, maxIdle));
+    }
+
+    public EnginePool<Cipher> aesGcm() {
+        return aesGcm;
+    }
+
+    public EnginePool<KeyAgreement> ecdh() {
+        return ecdh;
+    }
+
+    public EnginePool<MessageDigest> sha256() {
+        return sha256;
+    }
+
+    // P-256 key pair generators, already initialised
+    public EnginePool<KeyPairGenerator> ecKeyPairGenerators() {
+        return ecKeyPairGenerators;
+    }
+}
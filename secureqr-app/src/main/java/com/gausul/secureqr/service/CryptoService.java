@@ -0,0 +1,297 @@
+package com.gausul.secureqr.service;
+
+
+
+import com.gausul.secureqr.verifier.EcKeys;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.*;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+
+@Service
+public class CryptoService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // pooled Signature / KeyFactory / Cipher / KeyAgreement / MessageDigest instances (see CryptoEngines)
+    private final CryptoEngines engines;
+
+    // parsed keys, keyed by fingerprint of the encoded bytes (see KeyCache)
+    private final KeyCache keyCache;
+
+    public CryptoService() {
+        this(1024, Duration.ofMinutes(30), Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    @Autowired
+    public CryptoService(@Value("${secureqr.crypto.key-cache.maximum-size:1024}") long keyCacheMaximumSize,
+                         @Value("${secureqr.crypto.key-cache.expire-after-access:PT30M}") Duration keyCacheExpireAfterAccess,
+                         @Value("${secureqr.crypto.engine-pool.max-idle:0}") int engineMaxIdle) {
+        // 0 = size the pools to the machine
+        this.engines = new CryptoEngines(engineMaxIdle > 0 ? engineMaxIdle : Runtime.getRuntime().availableProcessors() * 2);
+        this.keyCache = new KeyCache(keyCacheMaximumSize, keyCacheExpireAfterAccess, engines.sha256());
+    }
+
+    public CryptoEngines getEngines() {
+        return engines;
+    }
+
+    public KeyCache getKeyCache() {
+        return keyCache;
+    }
+
+    // --- ECDSA (P-256) keygen ---
+    public KeyPair generateEcdsaKeyPair() throws GeneralSecurityException {
+        return engines.ecKeyPairGenerators().with(KeyPairGenerator::generateKeyPair); // P-256
+    }
+
+    // --- Generic ECDSA sign / verify (SHA256withECDSA) ---
+    public String signEcdsa(String data, String privateKeyBase64) throws Exception {
+        byte[] sigBytes = signEcdsa(data.getBytes(StandardCharsets.UTF_8), Base64.getDecoder().decode(privateKeyBase64));
+        return Base64.getEncoder().encodeToString(sigBytes);
+    }
+
+    public boolean verifyEcdsa(String data, String signatureBase64, String publicKeyBase64) throws Exception {
+        return verifyEcdsa(data.getBytes(StandardCharsets.UTF_8),
+                Base64.getDecoder().decode(signatureBase64), Base64.getDecoder().decode(publicKeyBase64));
+    }
+
+    // raw encodings as stored (PKCS#8 / X.509 / DER signature); no Base64 on the issue / verify paths
+    public byte[] signEcdsa(byte[] data, byte[] privateKeyPkcs8) throws Exception {
+        return sign("SHA256withECDSA", loadPrivateKey(privateKeyPkcs8, "EC"), data);
+    }
+
+    // RFC 6979 deterministic SHA256withECDSA: same key + data -> same signature (see DeterministicEcdsa)
+    public byte[] signEcdsaDeterministic(byte[] data, byte[] privateKeyPkcs8) throws Exception {
+        ECPrivateKey privateKey = (ECPrivateKey) loadPrivateKey(privateKeyPkcs8, "EC");
+        byte[] hash = engines.sha256().with(md -> md.digest(data));
+        return DeterministicEcdsa.sign(hash, privateKey.getS());
+    }
+
+    public boolean verifyEcdsa(byte[] data, byte[] signatureDer, byte[] publicKeyX509) throws Exception {
+        return verify("SHA256withECDSA", loadPublicKey(publicKeyX509, "EC"), data, signatureDer);
+    }
+
+    // --- Pooled Signature engine helpers ---
+    private byte[] sign(String algorithm, PrivateKey privateKey, byte[] data) throws GeneralSecurityException {
+        return engines.signature(algorithm).with(signature -> {
+            signature.initSign(privateKey);
+            signature.update(data);
+            return signature.sign();
+        });
+    }
+
+    private boolean verify(String algorithm, PublicKey publicKey, byte[] data, byte[] sigBytes) throws GeneralSecurityException {
+        return engines.signature(algorithm).with(signature -> {
+            signature.initVerify(publicKey);
+            signature.update(data);
+            return signature.verify(sigBytes);
+        });
+    }
+
+    // --- Key encode helpers (X.509 / PKCS#8) ---
+    public String encodePublicKeyToBase64(PublicKey publicKey) {
+        return Base64.getEncoder().encodeToString(publicKey.getEncoded()); // X.509
+    }
+
+    public String encodePrivateKeyToBase64(PrivateKey privateKey) {
+        return Base64.getEncoder().encodeToString(privateKey.getEncoded()); // PKCS#8
+    }
+
+    // --- Compressed P-256 points (compact QR envelope, see EcKeys) ---
+    public byte[] compressEcPublicKey(byte[] publicKeyX509) throws Exception {
+        return EcKeys.compress((ECPublicKey) loadPublicKey(publicKeyX509, "EC"));
+    }
+
+    // 33-byte SEC1 point -> X.509 DER; the point is decompressed once per distinct key (cached)
+    public byte[] decompressEcPublicKey(byte[] compressed) throws Exception {
+        PublicKey publicKey = keyCache.get("compressed", "EC", compressed,
+                encoded -> engines.keyFactory("EC").with(kf -> kf.generatePublic(EcKeys.decompress(encoded))));
+        return publicKey.getEncoded();
+    }
+
+    // --- Load keys from base64 / DER for both "EC" and "RSA" (flexible), through the parsed-key cache ---
+    private PrivateKey loadPrivateKeyFromBase64(String base64Pkcs8, String algorithm) throws Exception {
+        return loadPrivateKey(Base64.getDecoder().decode(base64Pkcs8), algorithm);
+    }
+
+    private PublicKey loadPublicKeyFromBase64(String base64X509, String algorithm) throws Exception {
+        return loadPublicKey(Base64.getDecoder().decode(base64X509), algorithm);
+    }
+
+    private PrivateKey loadPrivateKey(byte[] pkcs8, String algorithm) throws Exception {
+        return keyCache.get("private", algorithm, pkcs8,
+                encoded -> engines.keyFactory(algorithm).with(kf -> kf.generatePrivate(new PKCS8EncodedKeySpec(encoded))));
+    }
+
+    private PublicKey loadPublicKey(byte[] x509, String algorithm) throws Exception {
+        return keyCache.get("public", algorithm, x509,
+                encoded -> engines.keyFactory(algorithm).with(kf -> kf.generatePublic(new X509EncodedKeySpec(encoded))));
+    }
+
+    // Convenience wrappers for RSA (if you still want RSA for other uses)
+    public KeyPair generateRsaKeyPair() throws NoSuchAlgorithmException {
+        KeyPairGenerator kpg = KeyPairGenerator.getInstance("RSA");
+        kpg.initialize(2048);
+        return kpg.generateKeyPair();
+    }
+
+    public String signRsa(String data, String privateKeyBase64) throws Exception {
+        PrivateKey privateKey = loadPrivateKeyFromBase64(privateKeyBase64, "RSA");
+        byte[] sigBytes = sign("SHA256withRSA", privateKey, data.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(sigBytes);
+    }
+
+    public boolean verifyRsa(String data, String signatureBase64, String publicKeyBase64) throws Exception {
+        PublicKey publicKey = loadPublicKeyFromBase64(publicKeyBase64, "RSA");
+        byte[] sigBytes = Base64.getDecoder().decode(signatureBase64);
+        return verify("SHA256withRSA", publicKey, data.getBytes(StandardCharsets.UTF_8), sigBytes);
+    }
+
+
+
+
+
+
+
+
+
+    // --------- Hybrid encryption helpers using ECDH (P-256) + AES-GCM ----------
+    // Encrypt plaintext (UTF-8) to base64 ciphertext using recipient's public key (X.509 Base64).
+    // Returns JSON string containing iv + ciphertext (both base64). We use 12-byte IV for GCM.
+    public String encryptForRecipientUsingEcdhAes(String plaintext, String recipientPublicKeyBase64) throws Exception {
+        // load recipient public key
+        PublicKey recipientPublic = loadPublicKeyFromBase64(recipientPublicKeyBase64, "EC");
+
+        // generate ephemeral key pair for sender side (ECDH)
+        KeyPair ephemeral = generateEcdsaKeyPair();
+
+        // derive shared secret: ephemeralPrivate + recipientPublic
+        SecretKeySpec aesKey = deriveAesKey(ephemeral.getPrivate(), recipientPublic);
+
+        // AES-GCM encrypt
+        byte[] iv = new byte[12];
+        RANDOM.nextBytes(iv);
+        GCMParameterSpec gcm = new GCMParameterSpec(128, iv);
+        byte[] cipherBytes = engines.aesGcm().with(cipher -> {
+            cipher.init(Cipher.ENCRYPT_MODE, aesKey, gcm);
+            return cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8));
+        });
+
+        // We must send ephemeral public key so recipient can derive the same shared secret.
+        String ephemeralPubB64 = Base64.getEncoder().encodeToString(ephemeral.getPublic().getEncoded());
+        String ivB64 = Base64.getEncoder().encodeToString(iv);
+        String cipherB64 = Base64.getEncoder().encodeToString(cipherBytes);
+
+        // JSON-like string (you can use Jackson on frontend). Simple compact JSON:
+        String out = String.format("{\"ephemeralPub\":\"%s\",\"iv\":\"%s\",\"cipher\":\"%s\"}", ephemeralPubB64, ivB64, cipherB64);
+        return out;
+    }
+
+    // Decrypt the JSON produced by encryptForRecipientUsingEcdhAes.
+    // privateKeyBase64 is recipient's private key (PKCS#8 base64).
+    public String decryptWithPrivateKeyEcdhAes(String envelopeJson, String recipientPrivateKeyBase64) throws Exception {
+        // quick parse (no heavy JSON lib). envelopeJson expected as {"ephemeralPub":"...","iv":"...","cipher":"..."}
+        // For robustness, use Jackson in real code. Here simple parse:
+        java.util.Map<String,String> m = new java.util.HashMap<>();
+        String trimmed = envelopeJson.trim();
+        trimmed = trimmed.substring(1, trimmed.length()-1); // remove { }
+        for (String part : trimmed.split(",")) {
+            int colon = part.indexOf(':');
+            if (colon < 0) continue;
+            String key = part.substring(0, colon).replaceAll("[\"\\s]",""); // remove quotes/spaces
+            String val = part.substring(colon+1).trim();
+            val = val.replaceAll("^\"|\"$",""); // remove surrounding quotes
+            m.put(key, val);
+        }
+        String ephemeralPubB64 = m.get("ephemeralPub");
+        String ivB64 = m.get("iv");
+        String cipherB64 = m.get("cipher");
+        if (ephemeralPubB64 == null || ivB64 == null || cipherB64 == null) throw new IllegalArgumentException("invalid envelope");
+
+        // load ephemeral public key (single use, so parsed directly rather than cached)
+        byte[] ephPubBytes = Base64.getDecoder().decode(ephemeralPubB64);
+        PublicKey ephemeralPublic = engines.keyFactory("EC").with(kf -> kf.generatePublic(new X509EncodedKeySpec(ephPubBytes)));
+
+        // load recipient private key
+        PrivateKey recipientPrivate = loadPrivateKeyFromBase64(recipientPrivateKeyBase64, "EC");
+
+        // derive shared secret: recipientPrivate + ephemeralPublic
+        SecretKeySpec aesKey = deriveAesKey(recipientPrivate, ephemeralPublic);
+
+        // decrypt
+        byte[] iv = Base64.getDecoder().decode(ivB64);
+        GCMParameterSpec gcm = new GCMParameterSpec(128, iv);
+        byte[] cipherBytes = Base64.getDecoder().decode(cipherB64);
+        byte[] plainBytes = engines.aesGcm().with(cipher -> {
+            cipher.init(Cipher.DECRYPT_MODE, aesKey, gcm);
+            return cipher.doFinal(cipherBytes);
+        });
+
+        return new String(plainBytes, StandardCharsets.UTF_8);
+    }
+
+    // ECDH shared secret -> SHA-256 -> AES-256 key
+    private SecretKeySpec deriveAesKey(PrivateKey ownPrivate, PublicKey peerPublic) throws GeneralSecurityException {
+        byte[] sharedSecret = engines.ecdh().with(ka -> {
+            ka.init(ownPrivate);
+            ka.doPhase(peerPublic, true);
+            return ka.generateSecret();
+        });
+        byte[] aesKeyBytes = engines.sha256().with(md -> md.digest(sharedSecret));
+        return new SecretKeySpec(aesKeyBytes, 0, 32, "AES");
+    }
+
+
+    public boolean verify(String data, String signatureBase64, String publicKeyBase64) throws Exception {
+
+        // 1. Decode the Base64 Public Key
+        PublicKey publicKey = decodePublicKey(publicKeyBase64); // You'll need to implement this helper
+
+        // 2. Decode the Base64 Signature
+        byte[] signatureBytes = Base64.getDecoder().decode(signatureBase64);
+
+        // 3-5. Verify with a pooled SHA256withRSA engine over the UTF-8 data bytes
+        return verify("SHA256withRSA", publicKey, data.getBytes(StandardCharsets.UTF_8), signatureBytes);
+    }
+
+    // X.509 Base64 -> RSA PublicKey (cached)
+    private PublicKey decodePublicKey(String publicKeyBase64) throws Exception {
+        return loadPublicKeyFromBase64(publicKeyBase64, "RSA");
+    }
+
+    public String sign(String data, String privateKeyBase64) throws Exception {
+
+        // 1. Decode the Base64 Private Key
+        PrivateKey privateKey = decodePrivateKey(privateKeyBase64); // You'll need to implement this helper
+
+        // 2-4. Sign with a pooled SHA256withRSA engine over the UTF-8 data bytes
+        byte[] signatureBytes = sign("SHA256withRSA", privateKey, data.getBytes(StandardCharsets.UTF_8));
+
+        // 5. Encode the signature to Base64 for safe transport
+        return Base64.getEncoder().encodeToString(signatureBytes);
+    }
+
+    // PKCS#8 Base64 -> RSA PrivateKey (cached)
+    private PrivateKey decodePrivateKey(String privateKeyBase64) throws Exception {
+        return loadPrivateKeyFromBase64(privateKeyBase64, "RSA");
+    }
+}
+
+//This uses ephemeral sender keypair for forward secrecy.
+//
+//Recipient must have the private key to decrypt. In your flow, leaf keys are stored encrypted in DB — decrypt via KMS before using here (dev code may use raw storage).
+//
+//Envelope JSON is compact. For production, use Jackson objects.
+
@@ -0,0 +1,53 @@
+package com.gausul.secureqr.service;
+
+import com.gausul.secureqr.verifier.EcKeys;
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.ec.CustomNamedCurves;
+import org.bouncycastle.crypto.params.ECDomainParameters;
+import org.bouncycastle.crypto.params.ECPrivateKeyParameters;
+import org.bouncycastle.crypto.signers.ECDSASigner;
+import org.bouncycastle.crypto.signers.HMacDSAKCalculator;
+
+import java.math.BigInteger;
+
+/**
+ * Deterministic ECDSA over P-256 with SHA-256 (RFC 6979): the nonce k is derived from the private key
+ * and the message hash with HMAC_DRBG, so the same key + data always give the same signature and
+ * therefore the same QR. Signatures are ordinary ECDSA; any SHA256withECDSA verifier accepts them.
+ *
+ * Signing is BouncyCastle's ECDSASigner with its HMacDSAKCalculator over the custom P-256 curve,
+ * whose field arithmetic and fixed-point comb multiplication don't branch on the secret nonce.
+ */
+public final class DeterministicEcdsa {
+
+    private static final X9ECParameters P256 = CustomNamedCurves.getByName("secp256r1");
+    private static final ECDomainParameters DOMAIN =
+            new ECDomainParameters(P256.getCurve(), P256.getG(), P256.getN(), P256.getH());
+
+    private DeterministicEcdsa() {
+    }
+
+    /**
+     * @param hash SHA-256 of the message (32 bytes)
+     * @param d    private scalar
+     * @return DER signature, as produced by SHA256withECDSA
+     */
+    public static byte[] sign(byte[] hash, BigInteger d) {
+        if (hash.length != EcKeys.FIELD_BYTES) throw new IllegalArgumentException("expected a SHA-256 hash");
+        ECDSASigner signer = new ECDSASigner(new HMacDSAKCalculator(new SHA256Digest()));
+        signer.init(true, new ECPrivateKeyParameters(d, DOMAIN));
+        BigInteger[] rs = signer.generateSignature(hash);
+
+        byte[] raw = new byte[2 * EcKeys.FIELD_BYTES];
+        writeFixed(rs[0], raw, 0);
+        writeFixed(rs[1], raw, EcKeys.FIELD_BYTES);
+        return EcKeys.rawToDer(raw);
+    }
+
+    private static void writeFixed(BigInteger v, byte[] out, int off) {
+        byte[] b = v.toByteArray();
+        int len = Math.min(b.length, EcKeys.FIELD_BYTES);
+        System.arraycopy(b, b.length - len, out, off + EcKeys.FIELD_BYTES - len, len);
+    }
+}
@@ -0,0 +1,70 @@
+package com.gausul.secureqr.service;
+
+import java.security.GeneralSecurityException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Small lock-free pool of reusable, non thread-safe engines (Signature, Cipher, MessageDigest, ...).
+ * Shared across threads rather than ThreadLocal, so it keeps working under virtual threads where a
+ * ThreadLocal would be a fresh (empty) slot per request. At most maxIdle engines are retained;
+ * extra ones created under bursts are simply dropped on release.
+ */
+public final class EnginePool<T> {
+
+    @FunctionalInterface
+    public interface Factory<T> {
+        T create() throws GeneralSecurityException;
+    }
+
+    @FunctionalInterface
+    public interface EngineFunction<T, R> {
+        R apply(T engine) throws GeneralSecurityException;
+    }
+
+    private final Factory<T> factory;
+    private final Consumer<T> reset;
+    private final int maxIdle;
+    private final ConcurrentLinkedQueue<T> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    public EnginePool(Factory<T> factory, Consumer<T> reset, int maxIdle) {
+        this.factory = factory;
+        this.reset = reset;
+        this.maxIdle = maxIdle;
+    }
+
+    public T borrow() throws GeneralSecurityException {
+        T engine = idle.poll();
+        if (engine != null) {
+            idleCount.decrementAndGet();
+            return engine;
+        }
+        return factory.create();
+    }
+
+    public void release(T engine) {
+        reset.accept(engine);
+        if (idleCount.incrementAndGet() <= maxIdle) {
+            idle.offer(engine);
+        } else {
+            idleCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Borrow an engine, run fn with it and hand it back. If fn throws, the engine is discarded
+     * instead of returned, since its internal state may be half-way through an operation.
+     */
+    public <R> R with(EngineFunction<T, R> fn) throws GeneralSecurityException {
+        T engine = borrow();
+        R result = fn.apply(engine);
+        release(engine);
+        return result;
+    }
+
+    public int idleCount() {
+        return idleCount.get();
+    }
+}
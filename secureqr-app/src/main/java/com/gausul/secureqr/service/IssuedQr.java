@@ -0,0 +1,25 @@
+package com.gausul.secureqr.service;
+
+import com.gausul.secureqr.model.SignedQrRecord;
+
+/**
+ * A signed QR text and its (not yet persisted) audit record, as produced by SignedQrService.issue.
+ */
+public final class IssuedQr {
+
+    private final String text;
+    private final SignedQrRecord record;
+
+    public IssuedQr(String text, SignedQrRecord record) {
+        this.text = text;
+        this.record = record;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public SignedQrRecord getRecord() {
+        return record;
+    }
+}
@@ -0,0 +1,125 @@
+package com.gausul.secureqr.service;
+
+
+
+import com.gausul.secureqr.model.Issuer;
+import com.gausul.secureqr.model.LeafKey;
+import com.gausul.secureqr.repository.IssuerRepository;
+import com.gausul.secureqr.repository.LeafKeyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.security.KeyPair;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+
+@Service
+public class IssuerService {
+
+    private final CryptoService cryptoService;
+    private final IssuerRepository issuerRepository;
+    private final LeafKeyRepository leafKeyRepository;
+    private final TrustAnchorRegistry trustAnchorRegistry;
+    private final LeafKeyDirectory leafKeyDirectory;
+    private final LeafKeyCache leafKeyCache;
+    private final LeafKeyPool leafKeyPool;
+
+    @Autowired
+    public IssuerService(CryptoService cryptoService,
+                         IssuerRepository issuerRepository,
+                         LeafKeyRepository leafKeyRepository,
+                         TrustAnchorRegistry trustAnchorRegistry,
+                         LeafKeyDirectory leafKeyDirectory,
+                         LeafKeyCache leafKeyCache,
+                         LeafKeyPool leafKeyPool) {
+        this.cryptoService = cryptoService;
+        this.issuerRepository = issuerRepository;
+        this.leafKeyRepository = leafKeyRepository;
+        this.trustAnchorRegistry = trustAnchorRegistry;
+        this.leafKeyDirectory = leafKeyDirectory;
+        this.leafKeyCache = leafKeyCache;
+        this.leafKeyPool = leafKeyPool;
+    }
+
+    // Create or load root issuer. For dev: create if not exists.
+    public Issuer initRootIssuerIfMissing(String displayName, String issuerId) throws Exception {
+        // try load
+        return issuerRepository.findById(issuerId).orElseGet(() -> {
+            try {
+                KeyPair rootKp = cryptoService.generateEcdsaKeyPair();
+                Issuer iss = new Issuer();
+                iss.setId(issuerId);
+                iss.setDisplayName(displayName);
+                iss.setPublicKey(rootKp.getPublic().getEncoded()); // X.509
+                // TODO: encrypt private key with app master key or KMS before storing
+                iss.setPrivateKeyEncrypted(rootKp.getPrivate().getEncoded()); // PKCS#8
+                Issuer saved = issuerRepository.save(iss);
+                trustAnchorRegistry.register(saved);
+                return saved;
+            } catch (Exception ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+    }
+
+    // Issue a leaf under the given issuerId
+    public LeafKey issueLeaf(String issuerId, String alias) throws Exception {
+        // 1️⃣ Load the issuer (root)
+        Issuer issuer = issuerRepository.findById(issuerId)
+                .orElseThrow(() -> new IllegalArgumentException("Issuer not found: " + issuerId));
+
+        // 2️⃣ Take a pre-generated, already issuer-signed leaf keypair from the pool
+        byte[] leafPub;
+        byte[] leafPriv;
+        byte[] issuerSignature;
+        LeafKeyPool.PooledLeaf pooled = leafKeyPool.claim(issuer);
+        if (pooled != null) {
+            leafPub = pooled.getPublicKey();
+            leafPriv = pooled.getPrivateKey();
+            issuerSignature = pooled.getIssuerSignature();
+        } else {
+            // pool empty (burst or disabled): generate inline
+            KeyPair leafKp = cryptoService.generateEcdsaKeyPair();
+
+            leafPub = leafKp.getPublic().getEncoded();   // X.509
+            leafPriv = leafKp.getPrivate().getEncoded(); // PKCS#8
+
+            // 3️⃣ Sign the leaf's public key using the issuer’s private key
+            byte[] rootPriv = issuer.getPrivateKeyEncrypted();
+            issuerSignature = cryptoService.signEcdsa(TrustAnchorRegistry.chainMessage(leafPub), rootPriv);
+        }
+
+        // 4️⃣ Create and save LeafKey entity
+        LeafKey leaf = new LeafKey();
+        leaf.setAlias(alias);
+        leaf.setIssuerId(issuerId);
+        leaf.setPublicKey(leafPub);
+        leaf.setPrivateKeyEncrypted(leafPriv);  // ⚠️ In prod: encrypt before storing
+        leaf.setIssuerSignature(issuerSignature);
+
+        LeafKey saved = leafKeyRepository.save(leaf);
+        leafKeyDirectory.register(saved); // resolvable by key-id QRs right away
+        if (alias != null) leafKeyCache.aliasChanged(alias); // here and, via key_changes, on the other nodes
+        return saved;
+    }
+
+
+    public Issuer getIssuer(String issuerId) { return issuerRepository.findById(issuerId).orElse(null); }
+
+    // cached by alias (LeafKeyCache); a DB read only on a miss
+    public LeafKey getLeafByAlias(String alias) { return leafKeyCache.getByAlias(alias); }
+
+    // X.509 DER
+    public byte[] getRootPublicKey() {
+        // Served from the in-memory trust anchors; DB only if the registry hasn't been loaded yet
+        byte[] cached = trustAnchorRegistry.getPublicKey(null);
+        if (cached != null) return cached;
+
+        // Strategy: Find the single root issuer (e.g., the one created first)
+        Optional<Issuer> rootIssuer = issuerRepository.findFirstByOrderByCreatedAtAsc();
+
+        // If an Issuer is found, return its public key, otherwise return null
+        return rootIssuer.map(Issuer::getPublicKey).orElse(null);
+    }
+}
@@ -0,0 +1,95 @@
+package com.gausul.secureqr.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+
+/**
+ * Bounded, concurrent cache of parsed JCA keys.
+ * Entries are keyed by a SHA-256 fingerprint of the encoded key (never the key material itself),
+ * so the same few root / leaf keys are run through KeyFactory once instead of on every sign / verify.
+ */
+public class KeyCache {
+
+    @FunctionalInterface
+    public interface KeyParser<K extends Key> {
+        K parse(byte[] encoded) throws GeneralSecurityException;
+    }
+
+    private final Cache<String, Key> cache;
+    private final EnginePool<MessageDigest> sha256;
+
+    public KeyCache(long maximumSize, Duration expireAfterAccess, EnginePool<MessageDigest> sha256) {
+        this.sha256 = sha256;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached key for these encoded bytes, parsing (and caching) it on a miss.
+     * kind + algorithm are part of the cache key so the same bytes can't come back as the wrong key type.
+     */
+    @SuppressWarnings("unchecked")
+    public <K extends Key> K get(String kind, String algorithm, byte[] encoded, KeyParser<K> parser)
+            throws GeneralSecurityException {
+        String id = kind + ":" + algorithm + ":" + fingerprint(encoded);
+        try {
+            return (K) cache.get(id, ignored -> {
+                try {
+                    return parser.parse(encoded);
+                } catch (GeneralSecurityException ex) {
+                    throw new KeyParseException(ex);
+                }
+            });
+        } catch (KeyParseException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    // drops one key, e.g. the signing key of a revoked leaf
+    public void invalidate(String kind, String algorithm, byte[] encoded) throws GeneralSecurityException {
+        cache.invalidate(kind + ":" + algorithm + ":" + fingerprint(encoded));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    // exposed for metrics binding (CaffeineCacheMetrics)
+    public Cache<String, Key> nativeCache() {
+        return cache;
+    }
+
+    private String fingerprint(byte[] encoded) throws GeneralSecurityException {
+        return HexFormat.of().formatHex(sha256.with(md -> md.digest(encoded)));
+    }
+
+    // carries a checked parse failure out of the Caffeine mapping function
+    private static final class KeyParseException extends RuntimeException {
+        KeyParseException(GeneralSecurityException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized GeneralSecurityException getCause() {
+            return (GeneralSecurityException) super.getCause();
+        }
+    }
+}
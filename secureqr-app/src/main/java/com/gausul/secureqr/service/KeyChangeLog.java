@@ -0,0 +1,84 @@
+package com.gausul.secureqr.service;
+
+import com.gausul.secureqr.model.KeyChange;
+import com.gausul.secureqr.repository.KeyChangeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Cluster-wide cache invalidation through the key_changes table, without an external cache server.
+ * A node that changes key material appends a row (publish); every node polls for rows newer than the
+ * last one it saw (one indexed range read, usually empty) and hands them to its local listeners.
+ * Rows are idempotent invalidations, so re-reading the last few seconds to catch late commits is harmless.
+ */
+@Service
+public class KeyChangeLog {
+
+    private static final Logger log = LoggerFactory.getLogger(KeyChangeLog.class);
+
+    private final KeyChangeRepository repository;
+    private final Duration commitLag;
+    private final Duration retention;
+    private final List<Consumer<KeyChange>> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile long lastSeenId = -1;
+
+    @Autowired
+    public KeyChangeLog(KeyChangeRepository repository,
+                        @Value("${secureqr.key-changes.commit-lag:PT5S}") Duration commitLag,
+                        @Value("${secureqr.key-changes.retention:P1D}") Duration retention) {
+        this.repository = repository;
+        this.commitLag = commitLag;
+        this.retention = retention;
+    }
+
+    public void addListener(Consumer<KeyChange> listener) {
+        listeners.add(listener);
+    }
+
+    // Records a change for the other nodes and applies it locally right away.
+    public void publish(String scope, String keyRef) {
+        KeyChange change = repository.save(new KeyChange(scope, keyRef));
+        dispatch(change);
+    }
+
+    @Scheduled(fixedDelayString = "${secureqr.key-changes.poll-interval:PT2S}")
+    public synchronized void poll() {
+        if (lastSeenId < 0) {
+            // caches start empty, so only changes from now on matter
+            lastSeenId = repository.findMaxId();
+            return;
+        }
+        List<KeyChange> changes = repository.findChangesSince(lastSeenId, Instant.now().minus(commitLag));
+        for (KeyChange change : changes) {
+            dispatch(change);
+            if (change.getId() > lastSeenId) lastSeenId = change.getId();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${secureqr.key-changes.prune-interval:PT1H}")
+    public void prune() {
+        int removed = repository.deleteOlderThan(Instant.now().minus(retention));
+        if (removed > 0) log.debug("Pruned {} key change rows", removed);
+    }
+
+    private void dispatch(KeyChange change) {
+        for (Consumer<KeyChange> listener : listeners) {
+            try {
+                listener.accept(change);
+            } catch (RuntimeException ex) {
+                log.warn("Key change listener failed for {}:{}: {}", change.getScope(), change.getKeyRef(), ex.getMessage());
+            }
+        }
+    }
+}
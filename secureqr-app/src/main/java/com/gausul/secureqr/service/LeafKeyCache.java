@@ -0,0 +1,79 @@
+package com.gausul.secureqr.service;
+
+import com.gausul.secureqr.model.KeyChange;
+import com.gausul.secureqr.model.LeafKey;
+import com.gausul.secureqr.repository.LeafKeyRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+
+/**
+ * Read-through cache of LeafKey by alias, so /generate doesn't query leaf_keys per request.
+ * Bounded by size and TTL; entries are dropped when this node changes an alias and, on other nodes,
+ * when KeyChangeLog sees the change (within a poll interval). The parsed signing key lives in
+ * CryptoService's KeyCache and is evicted together with the entry.
+ */
+@Service
+public class LeafKeyCache {
+
+    private final LeafKeyRepository leafKeyRepository;
+    private final CryptoService cryptoService;
+    private final KeyChangeLog keyChangeLog;
+    private final Cache<String, LeafKey> byAlias;
+
+    @Autowired
+    public LeafKeyCache(LeafKeyRepository leafKeyRepository,
+                        CryptoService cryptoService,
+                        KeyChangeLog keyChangeLog,
+                        @Value("${secureqr.leaf-cache.maximum-size:1000}") long maximumSize,
+                        @Value("${secureqr.leaf-cache.expire-after-write:PT10M}") Duration expireAfterWrite) {
+        this.leafKeyRepository = leafKeyRepository;
+        this.cryptoService = cryptoService;
+        this.keyChangeLog = keyChangeLog;
+        this.byAlias = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        keyChangeLog.addListener(this::onKeyChange);
+    }
+
+    // null if no leaf has this alias (misses are not cached, so a newly issued alias shows up at once)
+    public LeafKey getByAlias(String alias) {
+        return byAlias.get(alias, key -> leafKeyRepository.findByAlias(key).orElse(null));
+    }
+
+    /**
+     * Call after issuing, revoking or re-keying the leaf behind alias: evicts it here and tells the
+     * other nodes through the key change log.
+     */
+    public void aliasChanged(String alias) {
+        keyChangeLog.publish(KeyChange.SCOPE_LEAF_ALIAS, alias);
+    }
+
+    private void onKeyChange(KeyChange change) {
+        if (KeyChange.SCOPE_ALL.equals(change.getScope())) {
+            byAlias.invalidateAll();
+            cryptoService.getKeyCache().invalidateAll();
+        } else if (KeyChange.SCOPE_LEAF_ALIAS.equals(change.getScope()) && change.getKeyRef() != null) {
+            LeafKey evicted = byAlias.asMap().remove(change.getKeyRef());
+            if (evicted != null && evicted.getPrivateKeyEncrypted() != null) {
+                try {
+                    cryptoService.getKeyCache().invalidate("private", "EC", evicted.getPrivateKeyEncrypted());
+                } catch (GeneralSecurityException ex) {
+                    cryptoService.getKeyCache().invalidateAll(); // can't fingerprint it; drop everything instead
+                }
+            }
+        }
+    }
+
+    // exposed for metrics binding (CaffeineCacheMetrics)
+    public Cache<String, LeafKey> nativeCache() {
+        return byAlias;
+    }
+}
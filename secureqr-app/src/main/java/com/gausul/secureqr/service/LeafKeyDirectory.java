@@ -0,0 +1,157 @@
+package com.gausul.secureqr.service;
+
+import com.gausul.secureqr.model.LeafKey;
+import com.gausul.secureqr.repository.LeafKeyRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory directory of issued leaf keys (leafId -> public key + issuer chain), for QRs that only
+ * carry a leaf key id (QrPayloadEncoding.KEY_ID).
+ * Loaded at startup and refreshed incrementally by created_at, so the scan path neither reads
+ * leaf_keys nor re-verifies the issuer signature: each chain is checked once when the leaf enters the
+ * directory, and again only if the trust anchors change.
+ * Ids found in neither the directory nor the DB are remembered for secureqr.leaf-directory.unknown-ttl,
+ * so key-id QRs carrying made-up ids (whose failed verdicts VerificationCache does not keep) cost at
+ * most one DB read per id and TTL.
+ */
+@Service
+public class LeafKeyDirectory {
+
+    private static final Logger log = LoggerFactory.getLogger(LeafKeyDirectory.class);
+
+    public static final class Entry {
+        private final UUID leafId;
+        private final String issuerId;
+        private final byte[] publicKey;
+        private final byte[] issuerSignature;
+        private final boolean chainValid;
+        private final long anchorGeneration;
+
+        Entry(UUID leafId, String issuerId, byte[] publicKey, byte[] issuerSignature,
+              boolean chainValid, long anchorGeneration) {
+            this.leafId = leafId;
+            this.issuerId = issuerId;
+            this.publicKey = publicKey;
+            this.issuerSignature = issuerSignature;
+            this.chainValid = chainValid;
+            this.anchorGeneration = anchorGeneration;
+        }
+
+        public UUID getLeafId() { return leafId; }
+
+        public String getIssuerId() { return issuerId; }
+
+        public byte[] getPublicKey() { return publicKey; }
+
+        public byte[] getIssuerSignature() { return issuerSignature; }
+
+        public boolean isChainValid() { return chainValid; }
+    }
+
+    private final LeafKeyRepository leafKeyRepository;
+    private final TrustAnchorRegistry trustAnchorRegistry;
+
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    // ids the DB did not know; bounded, and dropped as soon as the leaf is registered
+    private final Cache<UUID, Boolean> unknown;
+    // created_at of the newest leaf loaded so far; null until the first refresh
+    private volatile Instant watermark;
+
+    @Autowired
+    public LeafKeyDirectory(LeafKeyRepository leafKeyRepository,
+                            TrustAnchorRegistry trustAnchorRegistry,
+                            @Value("${secureqr.leaf-directory.unknown-maximum-size:100000}") long unknownMaximumSize,
+                            @Value("${secureqr.leaf-directory.unknown-ttl:PT30S}") Duration unknownTtl) {
+        this.leafKeyRepository = leafKeyRepository;
+        this.trustAnchorRegistry = trustAnchorRegistry;
+        this.unknown = Caffeine.newBuilder()
+                .maximumSize(unknownMaximumSize)
+                .expireAfterWrite(unknownTtl)
+                .recordStats()
+                .build();
+    }
+
+    // Loads leaves created since the last refresh (all of them on the first call).
+    @Scheduled(fixedDelayString = "${secureqr.leaf-directory.refresh-interval:PT30S}",
+            initialDelayString = "${secureqr.leaf-directory.refresh-interval:PT30S}")
+    public synchronized void refresh() {
+        List<LeafKey> leaves = watermark == null
+                ? leafKeyRepository.findAll()
+                : leafKeyRepository.findByCreatedAtGreaterThanEqualOrderByCreatedAtAsc(watermark);
+        int added = 0;
+        for (LeafKey leaf : leaves) {
+            if (!entries.containsKey(leaf.getId())) {
+                register(leaf);
+                added++;
+            }
+            if (watermark == null || leaf.getCreatedAt().isAfter(watermark)) watermark = leaf.getCreatedAt();
+        }
+        if (added > 0) log.debug("Leaf key directory: {} new leaves, {} total", added, entries.size());
+    }
+
+    // Called when a leaf is issued in this process, so it's resolvable before the next refresh.
+    public Entry register(LeafKey leaf) {
+        Entry entry = validate(leaf.getId(), leaf.getIssuerId(), leaf.getPublicKey(), leaf.getIssuerSignature());
+        entries.put(entry.getLeafId(), entry);
+        unknown.invalidate(entry.getLeafId());
+        return entry;
+    }
+
+    /**
+     * Leaf for this id, or null if unknown. A leaf issued on another node since the last refresh is
+     * read once from the DB, as is an unknown id once per secureqr.leaf-directory.unknown-ttl; a chain
+     * validated under older trust anchors is re-validated first.
+     */
+    public Entry get(UUID leafId) {
+        Entry entry = entries.get(leafId);
+        if (entry == null) {
+            if (unknown.getIfPresent(leafId) != null) return null;
+            LeafKey leaf = leafKeyRepository.findById(leafId).orElse(null);
+            if (leaf == null) {
+                unknown.put(leafId, Boolean.TRUE);
+                return null;
+            }
+            return register(leaf);
+        }
+        if (entry.anchorGeneration != trustAnchorRegistry.generation()) {
+            entry = validate(entry.leafId, entry.issuerId, entry.publicKey, entry.issuerSignature);
+            entries.put(leafId, entry);
+        }
+        return entry;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // exposed for metrics binding (CaffeineCacheMetrics)
+    public Cache<UUID, Boolean> unknownIds() {
+        return unknown;
+    }
+
+    private Entry validate(UUID leafId, String issuerId, byte[] publicKey, byte[] issuerSignature) {
+        long generation = trustAnchorRegistry.generation();
+        boolean chainValid;
+        try {
+            chainValid = trustAnchorRegistry.verifyChain(issuerId, publicKey, issuerSignature);
+        } catch (Exception ex) {
+            log.warn("Leaf {} chain check failed: {}", leafId, ex.getMessage());
+            chainValid = false;
+        }
+        return new Entry(leafId, issuerId, publicKey, issuerSignature, chainValid, generation);
+    }
+}
@@ -0,0 +1,180 @@
+package com.gausul.secureqr.service;
+
+import com.gausul.secureqr.model.Issuer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.KeyPair;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pre-generated, already issuer-signed leaf key pairs, one pool per issuer, so issueLeaf doesn't pay
+ * for P-256 key generation + the root signature inside the request.
+ *
+ * - claim() takes one entry atomically; null when the pool is empty (caller generates inline)
+ * - when a pool drops below low-watermark, one background thread tops it up to high-watermark
+ * - entries remember the issuer key that signed them; if the issuer's key changes the pool is discarded
+ *
+ * Metrics: secureqr.leaf.pool.depth, secureqr.leaf.pool.generated (refill rate),
+ * secureqr.leaf.pool.claimed, secureqr.leaf.pool.misses.
+ */
+@Service
+public class LeafKeyPool implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(LeafKeyPool.class);
+
+    private final CryptoService cryptoService;
+    private final boolean enabled;
+    private final int lowWatermark;
+    private final int highWatermark;
+
+    private final Map<String, IssuerPool> pools = new ConcurrentHashMap<>();
+    private final ExecutorService refiller;
+
+    private final Counter generatedCounter;
+    private final Counter claimedCounter;
+    private final Counter missCounter;
+
+    @Autowired
+    public LeafKeyPool(CryptoService cryptoService,
+                       MeterRegistry meterRegistry,
+                       @Value("${secureqr.leaf-pool.enabled:true}") boolean enabled,
+                       @Value("${secureqr.leaf-pool.low-watermark:16}") int lowWatermark,
+                       @Value("${secureqr.leaf-pool.high-watermark:64}") int highWatermark) {
+        this.cryptoService = cryptoService;
+        this.enabled = enabled;
+        this.lowWatermark = lowWatermark;
+        this.highWatermark = Math.max(highWatermark, lowWatermark);
+        this.refiller = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "leaf-pool-refill");
+            t.setDaemon(true);
+            return t;
+        });
+
+        Gauge.builder("secureqr.leaf.pool.depth", this, LeafKeyPool::depth)
+                .description("pre-generated leaf key pairs ready to be claimed")
+                .register(meterRegistry);
+        this.generatedCounter = Counter.builder("secureqr.leaf.pool.generated")
+                .description("leaf key pairs generated and signed by the refill thread")
+                .register(meterRegistry);
+        this.claimedCounter = Counter.builder("secureqr.leaf.pool.claimed").register(meterRegistry);
+        this.missCounter = Counter.builder("secureqr.leaf.pool.misses")
+                .description("issuances that found the pool empty and generated inline")
+                .register(meterRegistry);
+    }
+
+    /** A leaf key pair plus the issuer's signature over its public key (chainMessage). */
+    public static final class PooledLeaf {
+        private final byte[] publicKey;   // X.509
+        private final byte[] privateKey;  // PKCS#8
+        private final byte[] issuerSignature;
+
+        PooledLeaf(byte[] publicKey, byte[] privateKey, byte[] issuerSignature) {
+            this.publicKey = publicKey;
+            this.privateKey = privateKey;
+            this.issuerSignature = issuerSignature;
+        }
+
+        public byte[] getPublicKey() { return publicKey; }
+        public byte[] getPrivateKey() { return privateKey; }
+        public byte[] getIssuerSignature() { return issuerSignature; }
+    }
+
+    /**
+     * Takes a pre-signed leaf for this issuer, or returns null if none is ready. Either way the pool is
+     * topped up in the background once it is below the low watermark.
+     */
+    public PooledLeaf claim(Issuer issuer) {
+        if (!enabled) return null;
+        IssuerPool pool = poolFor(issuer);
+        PooledLeaf leaf = pool.entries.poll();
+        if (leaf != null) {
+            pool.depth.decrementAndGet();
+            claimedCounter.increment();
+        } else {
+            missCounter.increment();
+        }
+        if (pool.depth.get() < lowWatermark) scheduleRefill(pool);
+        return leaf;
+    }
+
+    // starts filling the pool for this issuer ahead of the first issuance (called at startup for the root)
+    public void warm(Issuer issuer) {
+        if (!enabled) return;
+        scheduleRefill(poolFor(issuer));
+    }
+
+    public int depth() {
+        int total = 0;
+        for (IssuerPool pool : pools.values()) total += pool.depth.get();
+        return total;
+    }
+
+    // the pool for issuer, replaced by an empty one if the issuer's key is not the one its entries were signed with
+    private IssuerPool poolFor(Issuer issuer) {
+        return pools.compute(issuer.getId(), (id, existing) ->
+                existing != null && Arrays.equals(existing.issuerPublicKey, issuer.getPublicKey())
+                        ? existing
+                        : new IssuerPool(issuer.getPublicKey(), issuer.getPrivateKeyEncrypted()));
+    }
+
+    private void scheduleRefill(IssuerPool pool) {
+        if (!pool.refilling.compareAndSet(false, true)) return; // one refill per pool at a time
+        try {
+            refiller.execute(() -> refill(pool));
+        } catch (RuntimeException ex) { // executor shut down
+            pool.refilling.set(false);
+        }
+    }
+
+    private void refill(IssuerPool pool) {
+        try {
+            while (pool.depth.get() < highWatermark && !Thread.currentThread().isInterrupted()) {
+                KeyPair kp = cryptoService.generateEcdsaKeyPair();
+                byte[] leafPub = kp.getPublic().getEncoded();
+                byte[] issuerSignature = cryptoService.signEcdsa(TrustAnchorRegistry.chainMessage(leafPub), pool.issuerPrivateKey);
+                pool.entries.add(new PooledLeaf(leafPub, kp.getPrivate().getEncoded(), issuerSignature));
+                pool.depth.incrementAndGet();
+                generatedCounter.increment();
+            }
+        } catch (Exception ex) {
+            // claims keep falling back to inline generation; the next one below the low watermark retries
+            log.warn("Leaf key pool refill failed: {}", ex.toString());
+        } finally {
+            pool.refilling.set(false);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        refiller.shutdownNow();
+    }
+
+    private static final class IssuerPool {
+        final byte[] issuerPublicKey;
+        final byte[] issuerPrivateKey;
+        final ConcurrentLinkedQueue<PooledLeaf> entries = new ConcurrentLinkedQueue<>();
+        // ConcurrentLinkedQueue.size() is O(n); track the depth separately for the watermark checks and the gauge
+        final AtomicInteger depth = new AtomicInteger();
+        final AtomicBoolean refilling = new AtomicBoolean();
+
+        IssuerPool(byte[] issuerPublicKey, byte[] issuerPrivateKey) {
+            this.issuerPublicKey = issuerPublicKey;
+            this.issuerPrivateKey = issuerPrivateKey;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.gausul.secureqr.service;
+
+
+import com.google.zxing.WriterException;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.Encoder;
+import com.google.zxing.qrcode.encoder.QRCode;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+
+@Service
+public class QrGenerator {
+
+    private final QrPngEncoder pngEncoder = new QrPngEncoder();
+
+    public String generateQr(String data, String filePath) throws Exception {
+        byte[] png = generateQrBytes(data);
+        Path path = FileSystems.getDefault().getPath(filePath);
+        java.nio.file.Files.write(path, png);
+        return "QR generated successfully at: " + path.toAbsolutePath();
+    }
+
+    // NEW: returns PNG bytes (use this for ResponseEntity)
+    // 1-bit grayscale PNG written straight from the QR module matrix (see QrPngEncoder)
+    public byte[] generateQrBytes(String data) throws Exception {
+        return render(data, QrOutputFormat.PNG, RenderProfile.DEFAULT).getBytes();
+    }
+
+    // PNG, SVG or packed module matrix for the same QR (see QrOutputFormat), sized by the profile
+    public RenderedQr render(String data, QrOutputFormat format, RenderProfile profile) throws Exception {
+        QRCode code = encode(data, profile);
+        ByteMatrix modules = code.getMatrix();
+        byte[] bytes;
+        switch (format) {
+            case SVG:
+                bytes = toSvg(modules, profile).getBytes(StandardCharsets.UTF_8);
+                break;
+            case MATRIX:
+                bytes = toPackedMatrix(modules);
+                break;
+            default:
+                bytes = toPng(modules, profile);
+        }
+        return new RenderedQr(bytes, format, profile.getName(), code.getVersion().getVersionNumber(),
+                modules.getWidth(), code.getECLevel());
+    }
+
+    /**
+     * Encodes at the profile's error correction level; if that needs a version above the profile's
+     * maxVersion, steps the level down (H -> Q -> M -> L) before giving up.
+     */
+    private static QRCode encode(String data, RenderProfile profile) throws WriterException {
+        ErrorCorrectionLevel ecc = profile.getErrorCorrection();
+        while (true) {
+            QRCode code = null;
+            try {
+                code = Encoder.encode(data, ecc);
+            } catch (WriterException ex) {
+                // "data too big" even for version 40 at this level
+            }
+            if (code != null && code.getVersion().getVersionNumber() <= profile.getMaxVersion()) return code;
+            if (ecc == ErrorCorrectionLevel.L) {
+                throw new IllegalArgumentException("payload does not fit QR version " + profile.getMaxVersion()
+                        + " (profile '" + profile.getName() + "')");
+            }
+            ecc = ErrorCorrectionLevel.values()[ecc.ordinal() - 1];
+        }
+    }
+
+    // integer pixels per module, quiet zone on every side
+    private byte[] toPng(ByteMatrix modules, RenderProfile profile) throws Exception {
+        int moduleSize = profile.getModuleSize();
+        int padding = profile.getQuietZone() * moduleSize;
+        int imageSize = modules.getWidth() * moduleSize + 2 * padding;
+
+        return pngEncoder.encode(modules, moduleSize, padding, imageSize);
+    }
+
+    // One path, one subpath per horizontal run of dark modules; coordinates are in modules so the
+    // client scales it. The quiet zone is part of the viewBox.
+    private static String toSvg(ByteMatrix modules, RenderProfile profile) {
+        int n = modules.getWidth();
+        int quietZone = profile.getQuietZone();
+        int viewBox = n + 2 * quietZone;
+        int size = viewBox * profile.getModuleSize();
+        byte[][] matrix = modules.getArray();
+
+        StringBuilder svg = new StringBuilder(64 + n * n * 2);
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 ").append(viewBox).append(' ').append(viewBox)
+                .append("\" width=\"").append(size).append("\" height=\"").append(size)
+                .append("\" shape-rendering=\"crispEdges\"><rect width=\"100%\" height=\"100%\" fill=\"#fff\"/><path fill=\"#000\" d=\"");
+        for (int y = 0; y < n; y++) {
+            byte[] row = matrix[y];
+            for (int x = 0; x < n; x++) {
+                if (row[x] != 1) continue;
+                int start = x;
+                while (x + 1 < n && row[x + 1] == 1) x++;
+                int run = x - start + 1;
+                svg.append('M').append(start + quietZone).append(',').append(y + quietZone)
+                        .append('h').append(run).append("v1h-").append(run).append('z');
+            }
+        }
+        return svg.append("\"/></svg>").toString();
+    }
+
+    // [version 1][module count n][n*n bits row-major, MSB first, 1 = dark]
+    private static byte[] toPackedMatrix(ByteMatrix modules) {
+        int n = modules.getWidth();
+        byte[][] matrix = modules.getArray();
+        byte[] out = new byte[2 + (n * n + 7) / 8];
+        out[0] = 1;
+        out[1] = (byte) n;
+        int bit = 0;
+        for (int y = 0; y < n; y++) {
+            for (int x = 0; x < n; x++, bit++) {
+                if (matrix[y][x] == 1) out[2 + (bit >> 3)] |= (byte) (0x80 >>> (bit & 7));
+            }
+        }
+        return out;
+    }
+}
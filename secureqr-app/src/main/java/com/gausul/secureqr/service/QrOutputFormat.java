@@ -0,0 +1,65 @@
+package com.gausul.secureqr.service;
+
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Representations QrGenerator can produce for a QR, negotiated from the Accept header.
+ * SVG and MATRIX are built from the module matrix directly and never rasterised.
+ */
+public enum QrOutputFormat {
+
+    PNG("image/png", "png"),
+    SVG("image/svg+xml", "svg"),
+    // [1 byte format version][1 byte module count n][n*n bits, row-major, MSB first, 1 = dark]; no quiet zone
+    MATRIX("application/vnd.secureqr.qr-matrix", "bin");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    QrOutputFormat(String mediaType, String extension) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    // png | svg | matrix (case-insensitive); null when unknown
+    public static QrOutputFormat fromName(String name) {
+        for (QrOutputFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name.trim())) return format;
+        }
+        return null;
+    }
+
+    /**
+     * Best format for an Accept header (highest q first, then header order); PNG when the header is
+     * missing or only wildcards match. Returns null when nothing acceptable is supported.
+     */
+    public static QrOutputFormat fromAccept(String accept) {
+        if (accept == null || accept.isBlank()) return PNG;
+
+        List<MediaType> accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() <= 0) continue;
+            for (QrOutputFormat format : values()) {
+                if (type.equalsTypeAndSubtype(format.mediaType)) {
+                    return format;
+                }
+            }
+            // image/* or */*: the PNG default
+            if (type.includes(PNG.mediaType)) return PNG;
+        }
+        return null;
+    }
+}
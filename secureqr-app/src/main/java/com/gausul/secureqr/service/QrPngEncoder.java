@@ -0,0 +1,133 @@
+package com.gausul.secureqr.service;
+
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a QR module matrix straight to a 1-bit grayscale PNG.
+ * Skips the BitMatrix -> ARGB BufferedImage -> ImageIO path: each module row is rasterised once as
+ * packed bits (dark runs cleared in a white line), repeated moduleSize times, and deflated in one go
+ * into a pre-sized buffer.
+ */
+public final class QrPngEncoder {
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] IHDR = "IHDR".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] IDAT = "IDAT".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] IEND = "IEND".getBytes(StandardCharsets.US_ASCII);
+
+    // Deflaters own native zlib state; reuse them instead of allocating one per image
+    private final EnginePool<Deflater> deflaters =
+            new EnginePool<>(() -> new Deflater(Deflater.BEST_SPEED), Deflater::reset, Runtime.getRuntime().availableProcessors() * 2);
+
+    /**
+     * @param modules    QR modules (1 = dark), as produced by ZXing's Encoder
+     * @param moduleSize pixels per module
+     * @param padding    white pixels left of / above the first module (includes the quiet zone)
+     * @param imageSize  width and height of the (square) output image in pixels
+     */
+    public byte[] encode(ByteMatrix modules, int moduleSize, int padding, int imageSize) throws Exception {
+        int n = modules.getWidth();
+        int stride = 1 + (imageSize + 7) / 8; // filter byte + packed row
+        byte[] raw = new byte[stride * imageSize];
+
+        // white line (filter type 0 = None, then all bits set)
+        byte[] white = new byte[stride];
+        Arrays.fill(white, 1, stride, (byte) 0xFF);
+
+        byte[][] matrix = modules.getArray();
+        byte[] line = new byte[stride];
+        int row = 0;
+        for (; row < Math.min(padding, imageSize); row++) {
+            System.arraycopy(white, 0, raw, row * stride, stride);
+        }
+        for (int y = 0; y < n && row < imageSize; y++) {
+            System.arraycopy(white, 0, line, 0, stride);
+            byte[] moduleRow = matrix[y];
+            for (int x = 0; x < n; x++) {
+                if (moduleRow[x] != 1) continue;
+                int runStart = x;
+                while (x + 1 < n && moduleRow[x + 1] == 1) x++;
+                clearBits(line, padding + runStart * moduleSize, Math.min(imageSize, padding + (x + 1) * moduleSize));
+            }
+            for (int r = 0; r < moduleSize && row < imageSize; r++, row++) {
+                System.arraycopy(line, 0, raw, row * stride, stride);
+            }
+        }
+        for (; row < imageSize; row++) {
+            System.arraycopy(white, 0, raw, row * stride, stride);
+        }
+
+        return writePng(imageSize, deflate(raw));
+    }
+
+    // clears pixels [from, to) of a packed row (pixel 0 = MSB of byte 1; byte 0 is the filter type)
+    private static void clearBits(byte[] line, int from, int to) {
+        int px = from;
+        while (px < to && (px & 7) != 0) {
+            line[1 + (px >> 3)] &= (byte) ~(0x80 >>> (px & 7));
+            px++;
+        }
+        while (px + 8 <= to) {
+            line[1 + (px >> 3)] = 0;
+            px += 8;
+        }
+        while (px < to) {
+            line[1 + (px >> 3)] &= (byte) ~(0x80 >>> (px & 7));
+            px++;
+        }
+    }
+
+    private byte[] deflate(byte[] raw) throws Exception {
+        return deflaters.with(deflater -> {
+            deflater.setInput(raw);
+            deflater.finish();
+            // 1-bit QR rasters compress extremely well; grow only in the unlikely case this is too small
+            byte[] out = new byte[raw.length / 8 + 64];
+            int len = 0;
+            while (!deflater.finished()) {
+                if (len == out.length) out = Arrays.copyOf(out, out.length * 2);
+                len += deflater.deflate(out, len, out.length - len);
+            }
+            return Arrays.copyOf(out, len);
+        });
+    }
+
+    private static byte[] writePng(int size, byte[] idat) {
+        byte[] png = new byte[PNG_SIGNATURE.length + (12 + 13) + (12 + idat.length) + 12];
+        System.arraycopy(PNG_SIGNATURE, 0, png, 0, PNG_SIGNATURE.length);
+        int pos = PNG_SIGNATURE.length;
+
+        byte[] header = new byte[13];
+        putInt(header, 0, size);  // width
+        putInt(header, 4, size);  // height
+        header[8] = 1;            // bit depth
+        header[9] = 0;            // colour type: grayscale
+        // compression, filter and interlace methods: 0
+        pos = writeChunk(png, pos, IHDR, header);
+        pos = writeChunk(png, pos, IDAT, idat);
+        writeChunk(png, pos, IEND, new byte[0]);
+        return png;
+    }
+
+    private static int writeChunk(byte[] png, int pos, byte[] type, byte[] data) {
+        putInt(png, pos, data.length);
+        System.arraycopy(type, 0, png, pos + 4, 4);
+        System.arraycopy(data, 0, png, pos + 8, data.length);
+        CRC32 crc = new CRC32();
+        crc.update(png, pos + 4, 4 + data.length);
+        putInt(png, pos + 8 + data.length, (int) crc.getValue());
+        return pos + 12 + data.length;
+    }
+
+    private static void putInt(byte[] b, int off, int v) {
+        b[off] = (byte) (v >>> 24);
+        b[off + 1] = (byte) (v >>> 16);
+        b[off + 2] = (byte) (v >>> 8);
+        b[off + 3] = (byte) v;
+    }
+}
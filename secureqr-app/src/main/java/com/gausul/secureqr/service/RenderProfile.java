@@ -0,0 +1,75 @@
+package com.gausul.secureqr.service;
+
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+
+/**
+ * How a QR is rendered: error correction level, pixels per module, quiet zone (modules) and the
+ * largest QR version allowed. Images are always an integer number of pixels per module.
+ * Bound from secureqr.render.profiles.&lt;name&gt;.* (see RenderProperties).
+ */
+public class RenderProfile {
+
+    // used when nothing else is configured
+    public static final RenderProfile DEFAULT = new RenderProfile("default", ErrorCorrectionLevel.M, 6, 4, 25);
+
+    private String name;
+    private ErrorCorrectionLevel errorCorrection = ErrorCorrectionLevel.M;
+    private int moduleSize = 6;
+    private int quietZone = 4;
+    private int maxVersion = 40;
+
+    public RenderProfile() {
+    }
+
+    public RenderProfile(String name, ErrorCorrectionLevel errorCorrection, int moduleSize, int quietZone, int maxVersion) {
+        this.name = name;
+        this.errorCorrection = errorCorrection;
+        this.moduleSize = moduleSize;
+        this.quietZone = quietZone;
+        this.maxVersion = maxVersion;
+    }
+
+    public RenderProfile named(String name) {
+        return new RenderProfile(name, errorCorrection, moduleSize, quietZone, maxVersion);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public ErrorCorrectionLevel getErrorCorrection() {
+        return errorCorrection;
+    }
+
+    public void setErrorCorrection(ErrorCorrectionLevel errorCorrection) {
+        this.errorCorrection = errorCorrection;
+    }
+
+    public int getModuleSize() {
+        return moduleSize;
+    }
+
+    public void setModuleSize(int moduleSize) {
+        this.moduleSize = moduleSize;
+    }
+
+    public int getQuietZone() {
+        return quietZone;
+    }
+
+    public void setQuietZone(int quietZone) {
+        this.quietZone = quietZone;
+    }
+
+    public int getMaxVersion() {
+        return maxVersion;
+    }
+
+    public void setMaxVersion(int maxVersion) {
+        this.maxVersion = maxVersion;
+    }
+}
@@ -0,0 +1,51 @@
+package com.gausul.secureqr.service;
+
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+
+/**
+ * Output of QrGenerator.render: the encoded bytes plus what the encoder actually chose,
+ * so scan speed can be tuned per profile (lower version / fewer modules = faster scans).
+ */
+public final class RenderedQr {
+
+    private final byte[] bytes;
+    private final QrOutputFormat format;
+    private final String profile;
+    private final int version;
+    private final int moduleCount;
+    private final ErrorCorrectionLevel errorCorrection;
+
+    public RenderedQr(byte[] bytes, QrOutputFormat format, String profile, int version, int moduleCount,
+                      ErrorCorrectionLevel errorCorrection) {
+        this.bytes = bytes;
+        this.format = format;
+        this.profile = profile;
+        this.version = version;
+        this.moduleCount = moduleCount;
+        this.errorCorrection = errorCorrection;
+    }
+
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    public QrOutputFormat getFormat() {
+        return format;
+    }
+
+    public String getProfile() {
+        return profile;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public int getModuleCount() {
+        return moduleCount;
+    }
+
+    public ErrorCorrectionLevel getErrorCorrection() {
+        return errorCorrection;
+    }
+}
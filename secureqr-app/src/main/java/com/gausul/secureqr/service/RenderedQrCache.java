@@ -0,0 +1,84 @@
+package com.gausul.secureqr.service;
+
+import com.gausul.secureqr.model.LeafKey;
+import com.gausul.secureqr.verifier.QrPayloadEncoding;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+import java.util.concurrent.Callable;
+
+/**
+ * Rendered QRs for deterministic signing (secureqr.qr.deterministic-signing=true), where the same leaf,
+ * payload, profile, format and encoding always produce byte-identical output. The cache key doubles
+ * as the HTTP ETag, so a client holding the image can revalidate without anything being signed or
+ * rendered. Keyed by the leaf id the alias resolves to, so re-keying an alias simply stops matching.
+ * Bounded by total image bytes; eviction is Caffeine's (size-based, recency-aware).
+ */
+@Component
+public class RenderedQrCache {
+
+    private final CryptoService cryptoService;
+    private final Cache<String, RenderedQr> cache;
+
+    @Autowired
+    public RenderedQrCache(CryptoService cryptoService,
+                           @Value("${secureqr.qr.render-cache.max-bytes:67108864}") long maxBytes) {
+        this.cryptoService = cryptoService;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, RenderedQr qr) -> qr.getBytes().length)
+                .recordStats()
+                .build();
+    }
+
+    // strong ETag value (quoted) for this exact output
+    public String etag(LeafKey leaf, String data, QrOutputFormat format, RenderProfile profile,
+                       QrPayloadEncoding encoding) throws GeneralSecurityException {
+        String material = leaf.getId() + "\n" + format + "\n" + encoding + "\n" + profile.getName() + "\n"
+                + profile.getErrorCorrection() + "/" + profile.getModuleSize() + "/" + profile.getQuietZone() + "/"
+                + profile.getMaxVersion() + "\n" + data;
+        byte[] digest = cryptoService.getEngines().sha256()
+                .with(md -> md.digest(material.getBytes(StandardCharsets.UTF_8)));
+        return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+    }
+
+    // cached output for etag, rendering (and caching) it on a miss; concurrent misses for the same etag
+    // render once, the others wait for that result
+    public RenderedQr get(String etag, Callable<RenderedQr> render) throws Exception {
+        try {
+            return cache.get(etag, ignored -> {
+                try {
+                    return render.call();
+                } catch (RuntimeException ex) {
+                    throw ex;
+                } catch (Exception ex) {
+                    throw new RenderException(ex);
+                }
+            });
+        } catch (RenderException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    // exposed for metrics binding (CaffeineCacheMetrics)
+    public Cache<String, RenderedQr> nativeCache() {
+        return cache;
+    }
+
+    private static final class RenderException extends RuntimeException {
+        RenderException(Exception cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized Exception getCause() {
+            return (Exception) super.getCause();
+        }
+    }
+}
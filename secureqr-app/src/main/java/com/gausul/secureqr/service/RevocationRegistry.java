@@ -0,0 +1,177 @@
+package com.gausul.secureqr.service;
+
+import com.gausul.secureqr.model.KeyChange;
+import com.gausul.secureqr.model.LeafKey;
+import com.gausul.secureqr.model.Revocation;
+import com.gausul.secureqr.model.SignedQrRecord;
+import com.gausul.secureqr.repository.LeafKeyRepository;
+import com.gausul.secureqr.repository.RevocationRepository;
+import com.gausul.secureqr.repository.SignedQrRecordRepository;
+import com.gausul.secureqr.verifier.RevocationFingerprint;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked leaf keys and individual QRs, answered from memory on every verification.
+ *
+ * - entries are RevocationFingerprints of the leaf key / payload signature
+ * - a Bloom filter answers the common "not revoked" case; only possible hits consult the exact set
+ * - loaded once, then incrementally by revocation id (sequence); other nodes are told through
+ *   KeyChangeLog and refresh within a poll interval, with the scheduled refresh as a safety net
+ * - the filter is rebuilt at twice the size when the set outgrows it
+ *
+ * Metrics: secureqr.revocations (gauge, entries loaded).
+ */
+@Service
+public class RevocationRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(RevocationRegistry.class);
+
+    private final RevocationRepository repository;
+    private final LeafKeyRepository leafKeyRepository;
+    private final SignedQrRecordRepository signedQrRecordRepository;
+    private final CryptoService cryptoService;
+    private final KeyChangeLog keyChangeLog;
+    private final VerificationCache verificationCache;
+    private final LeafKeyCache leafKeyCache;
+    private final Duration commitLag;
+    private final double falsePositiveRate;
+
+    private final Set<String> revoked = ConcurrentHashMap.newKeySet(); // hex fingerprints
+    private volatile BloomFilter bloom;
+    private long lastSeenId = -1;
+
+    @Autowired
+    public RevocationRegistry(RevocationRepository repository,
+                              LeafKeyRepository leafKeyRepository,
+                              SignedQrRecordRepository signedQrRecordRepository,
+                              CryptoService cryptoService,
+                              KeyChangeLog keyChangeLog,
+                              VerificationCache verificationCache,
+                              LeafKeyCache leafKeyCache,
+                              MeterRegistry meterRegistry,
+                              @Value("${secureqr.key-changes.commit-lag:PT5S}") Duration commitLag,
+                              @Value("${secureqr.revocation.bloom.expected-entries:100000}") int expectedEntries,
+                              @Value("${secureqr.revocation.bloom.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.repository = repository;
+        this.leafKeyRepository = leafKeyRepository;
+        this.signedQrRecordRepository = signedQrRecordRepository;
+        this.cryptoService = cryptoService;
+        this.keyChangeLog = keyChangeLog;
+        this.verificationCache = verificationCache;
+        this.leafKeyCache = leafKeyCache;
+        this.commitLag = commitLag;
+        this.falsePositiveRate = falsePositiveRate;
+        this.bloom = new BloomFilter(expectedEntries, falsePositiveRate);
+
+        Gauge.builder("secureqr.revocations", revoked, Set::size)
+                .description("revoked leaf keys and QRs held in memory")
+                .register(meterRegistry);
+        keyChangeLog.addListener(change -> {
+            if (KeyChange.SCOPE_REVOCATION.equals(change.getScope())) refresh();
+        });
+    }
+
+    // --- checks (verify path) ---
+
+    public boolean isLeafRevoked(byte[] leafPublicKeyX509) throws GeneralSecurityException {
+        return contains(cryptoService.getEngines().sha256().with(md -> RevocationFingerprint.leaf(md, leafPublicKeyX509)));
+    }
+
+    public boolean isQrRevoked(byte[] signatureDer) throws GeneralSecurityException {
+        return contains(qrFingerprint(signatureDer));
+    }
+
+    private boolean contains(byte[] fingerprint) {
+        return bloom.mightContain(fingerprint) && revoked.contains(HexFormat.of().formatHex(fingerprint));
+    }
+
+    // --- revoking ---
+
+    public Revocation revokeLeafByAlias(String alias, String reason) throws Exception {
+        LeafKey leaf = leafKeyRepository.findByAlias(alias)
+                .orElseThrow(() -> new IllegalArgumentException("alias not found: " + alias));
+        return revokeLeaf(leaf, reason);
+    }
+
+    public Revocation revokeLeaf(UUID leafId, String reason) throws Exception {
+        LeafKey leaf = leafKeyRepository.findById(leafId)
+                .orElseThrow(() -> new IllegalArgumentException("leaf key not found: " + leafId));
+        return revokeLeaf(leaf, reason);
+    }
+
+    private Revocation revokeLeaf(LeafKey leaf, String reason) throws Exception {
+        if (leaf.isRevoked()) throw new IllegalArgumentException("leaf key already revoked: " + leaf.getId());
+        leaf.setRevokedAt(Instant.now());
+        leafKeyRepository.save(leaf);
+        byte[] fingerprint = cryptoService.getEngines().sha256().with(md -> RevocationFingerprint.leaf(md, leaf.getPublicKey()));
+        Revocation saved = record(new Revocation(Revocation.KIND_LEAF, fingerprint, leaf.getId(), reason));
+        if (leaf.getAlias() != null) leafKeyCache.aliasChanged(leaf.getAlias()); // stop issuing with it
+        return saved;
+    }
+
+    // revokes one issued QR, identified by its audit record
+    public Revocation revokeQr(UUID recordId, String reason) throws Exception {
+        SignedQrRecord rec = signedQrRecordRepository.findById(recordId)
+                .orElseThrow(() -> new IllegalArgumentException("signed QR record not found: " + recordId));
+        byte[] fingerprint = qrFingerprint(rec.getSignature());
+        if (contains(fingerprint)) throw new IllegalArgumentException("QR already revoked: " + recordId);
+        return record(new Revocation(Revocation.KIND_QR, fingerprint, recordId, reason));
+    }
+
+    // persists, applies locally and tells the other nodes (and the local verdict cache) through the key change log
+    private Revocation record(Revocation revocation) {
+        Revocation saved = repository.save(revocation);
+        add(saved.getFingerprint());
+        keyChangeLog.publish(KeyChange.SCOPE_REVOCATION, String.valueOf(saved.getId()));
+        return saved;
+    }
+
+    // --- loading ---
+
+    @Scheduled(fixedDelayString = "${secureqr.revocation.refresh-interval:PT1M}")
+    public synchronized void refresh() {
+        List<Revocation> rows = repository.findRevocationsSince(lastSeenId, Instant.now().minus(commitLag));
+        int added = 0;
+        for (Revocation row : rows) {
+            if (add(row.getFingerprint())) added++;
+            if (row.getId() > lastSeenId) lastSeenId = row.getId();
+        }
+        if (added > 0) {
+            // verdicts cached before this node knew about the revocation
+            verificationCache.invalidateAll();
+            log.info("Loaded {} revocation(s) up to sequence {}", added, lastSeenId);
+        }
+    }
+
+    private synchronized boolean add(byte[] fingerprint) {
+        if (!revoked.add(HexFormat.of().formatHex(fingerprint))) return false;
+        if (revoked.size() > bloom.capacity()) {
+            BloomFilter grown = new BloomFilter(bloom.capacity() * 2, falsePositiveRate);
+            for (String hex : revoked) grown.add(HexFormat.of().parseHex(hex));
+            bloom = grown;
+        } else {
+            bloom.add(fingerprint);
+        }
+        return true;
+    }
+
+    private byte[] qrFingerprint(byte[] signatureDer) throws GeneralSecurityException {
+        return cryptoService.getEngines().sha256().with(md -> RevocationFingerprint.qr(md, signatureDer));
+    }
+}
@@ -0,0 +1,433 @@
+package com.gausul.secureqr.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gausul.secureqr.model.SignedQrRecord;
+import com.gausul.secureqr.repository.SignedQrRecordRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Audit trail for issued QRs. With secureqr.audit.async=false (default) every record is a plain
+ * repository save. With async=true it is write-behind:
+ *
+ * - record() appends the row to a local journal segment (fsync'd unless disabled) and puts it on a
+ *   bounded queue; when the queue is full the caller waits up to offer-timeout, then writes its row
+ *   synchronously (backpressure instead of unbounded memory)
+ * - one flusher thread drains the queue into JDBC batch inserts, retrying with backoff if the DB is down;
+ *   rows the DB rejects outright are appended to audit-dead-letter.jsonl in the journal dir instead
+ * - a segment file is deleted once it is rotated and all its rows are flushed; segments left over
+ *   from a crash are replayed (INSERT IGNORE) on startup, so nothing acknowledged is lost
+ *
+ * Metrics: secureqr.audit.queue.depth, secureqr.audit.flush (timer), secureqr.audit.flushed,
+ * secureqr.audit.sync.fallback, secureqr.audit.flush.failures, secureqr.audit.dead.letters.
+ */
+@Component
+public class SignedQrAuditLog implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(SignedQrAuditLog.class);
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String DEAD_LETTER_FILE = "audit-dead-letter.jsonl";
+
+    private final SignedQrRecordRepository repository;
+    private final SignedQrAuditWriter writer;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final boolean async;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration offerTimeout;
+    private final Path journalDir;
+    private final boolean fsync;
+    private final int segmentRecords;
+
+    private final BlockingQueue<Pending> queue;
+    private final Timer flushTimer;
+    private final Counter flushedCounter;
+    private final Counter syncFallbackCounter;
+    private final Counter flushFailureCounter;
+    private final Counter deadLetterCounter;
+
+    private final Object journalLock = new Object();
+    private Segment current;
+    private long nextSegment;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    @Autowired
+    public SignedQrAuditLog(SignedQrRecordRepository repository,
+                            SignedQrAuditWriter writer,
+                            MeterRegistry meterRegistry,
+                            @Value("${secureqr.audit.async:false}") boolean async,
+                            @Value("${secureqr.audit.queue-capacity:10000}") int queueCapacity,
+                            @Value("${secureqr.audit.batch-size:500}") int batchSize,
+                            @Value("${secureqr.audit.flush-interval:PT0.2S}") Duration flushInterval,
+                            @Value("${secureqr.audit.offer-timeout:PT1S}") Duration offerTimeout,
+                            @Value("${secureqr.audit.journal.dir:./audit-journal}") String journalDir,
+                            @Value("${secureqr.audit.journal.fsync:true}") boolean fsync,
+                            @Value("${secureqr.audit.journal.segment-records:10000}") int segmentRecords) {
+        this.repository = repository;
+        this.writer = writer;
+        this.async = async;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.offerTimeout = offerTimeout;
+        this.journalDir = Paths.get(journalDir);
+        this.fsync = fsync;
+        this.segmentRecords = segmentRecords;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("secureqr.audit.queue.depth", queue, BlockingQueue::size)
+                .description("audit records waiting to be flushed")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("secureqr.audit.flush")
+                .description("JDBC batch insert of queued audit records")
+                .register(meterRegistry);
+        this.flushedCounter = Counter.builder("secureqr.audit.flushed").register(meterRegistry);
+        this.syncFallbackCounter = Counter.builder("secureqr.audit.sync.fallback")
+                .description("records written synchronously because the queue stayed full")
+                .register(meterRegistry);
+        this.flushFailureCounter = Counter.builder("secureqr.audit.flush.failures").register(meterRegistry);
+        this.deadLetterCounter = Counter.builder("secureqr.audit.dead.letters")
+                .description("records the database rejected permanently (see audit-dead-letter.jsonl)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records an issued QR. Returns once the row is either in the DB (sync mode / fallback) or in the
+     * fsync'd journal and queued.
+     */
+    public void record(SignedQrRecord rec) throws Exception {
+        if (!async || !running) {
+            repository.save(rec);
+            return;
+        }
+        Segment segment = append(rec);
+        if (!queue.offer(new Pending(rec, segment), offerTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            syncFallbackCounter.increment();
+            writer.writeBatch(List.of(rec));
+            segment.flushed(1);
+        }
+    }
+
+    // --- lifecycle: replay leftovers, then start the flusher; stops after the web server (phase 0) ---
+
+    @Override
+    public void start() {
+        if (!async) return;
+        try {
+            Files.createDirectories(journalDir);
+            replayJournal();
+        } catch (IOException ex) {
+            throw new IllegalStateException("audit journal not usable: " + journalDir, ex);
+        }
+        running = true;
+        flusher = new Thread(this::flushLoop, "audit-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Write-behind audit log started (journal {})", journalDir.toAbsolutePath());
+    }
+
+    @Override
+    public void stop() {
+        if (!running) return;
+        running = false;
+        try {
+            flusher.join(Duration.ofSeconds(30).toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (journalLock) {
+            if (current != null) current.close();
+            current = null;
+        }
+        if (!queue.isEmpty()) log.warn("{} audit records left in the journal; replayed on next start", queue.size());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    // --- flusher ---
+
+    private void flushLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    retireIdleSegment();
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                if (!flush(batch)) return; // shutting down with the DB unreachable: journal keeps the rest
+                batch.clear();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes the batch. Transient errors (DB down, timeouts, deadlocks) are retried with backoff as an
+     * INSERT IGNORE, since a failed multi-row batch may have been partly applied. Anything else is a
+     * problem with the rows themselves, so they are written one at a time and the ones that still fail
+     * go to a dead-letter file instead of blocking the queue. Returns false if stop() interrupts retrying.
+     */
+    private boolean flush(List<Pending> batch) throws InterruptedException {
+        List<SignedQrRecord> records = new ArrayList<>(batch.size());
+        for (Pending pending : batch) records.add(pending.record);
+
+        long backoffMillis = 100;
+        boolean retry = false;
+        while (true) {
+            long start = System.nanoTime();
+            try {
+                if (retry) writer.replayBatch(records);
+                else writer.writeBatch(records);
+                flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                flushedCounter.increment(records.size());
+                for (Pending pending : batch) pending.segment.flushed(1);
+                return true;
+            } catch (RuntimeException ex) {
+                flushFailureCounter.increment();
+                if (!isTransient(ex)) {
+                    log.warn("Audit flush of {} records failed permanently, writing them one by one: {}", records.size(), ex.getMessage());
+                    return flushEach(batch);
+                }
+                if (!running) return false;
+                log.warn("Audit flush of {} records failed, retrying in {} ms: {}", records.size(), backoffMillis, ex.getMessage());
+                Thread.sleep(backoffMillis);
+                backoffMillis = Math.min(backoffMillis * 2, 10_000);
+                retry = true;
+            }
+        }
+    }
+
+    // isolates the rows that broke a batch; a duplicate id means the row is already in
+    private boolean flushEach(List<Pending> batch) throws InterruptedException {
+        for (Pending pending : batch) {
+            long backoffMillis = 100;
+            while (true) {
+                try {
+                    writer.writeBatch(List.of(pending.record));
+                    flushedCounter.increment();
+                    break;
+                } catch (DuplicateKeyException ex) {
+                    break;
+                } catch (RuntimeException ex) {
+                    if (!isTransient(ex)) {
+                        deadLetter(pending.record, ex);
+                        break;
+                    }
+                    if (!running) return false;
+                    Thread.sleep(backoffMillis);
+                    backoffMillis = Math.min(backoffMillis * 2, 10_000);
+                }
+            }
+            pending.segment.flushed(1);
+        }
+        return true;
+    }
+
+    private static boolean isTransient(RuntimeException ex) {
+        return ex instanceof TransientDataAccessException
+                || ex instanceof RecoverableDataAccessException
+                || ex instanceof DataAccessResourceFailureException; // incl. no connection
+    }
+
+    // rows the DB rejects for good: kept next to the journal (not replayed) for manual repair
+    private void deadLetter(SignedQrRecord rec, RuntimeException ex) {
+        deadLetterCounter.increment();
+        log.error("Audit record {} rejected by the database, moved to {}: {}", rec.getId(), DEAD_LETTER_FILE, ex.getMessage());
+        try {
+            Files.write(journalDir.resolve(DEAD_LETTER_FILE), toJournalLine(rec),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+        } catch (IOException io) {
+            log.error("Writing audit dead letter for {} failed: {}", rec.getId(), io.getMessage());
+        }
+    }
+
+    // --- journal ---
+
+    private Segment append(SignedQrRecord rec) throws IOException {
+        byte[] line = toJournalLine(rec);
+        synchronized (journalLock) {
+            if (current == null || current.written >= segmentRecords) rotate();
+            current.channel.write(ByteBuffer.wrap(line));
+            if (fsync) current.channel.force(false);
+            current.written++;
+            current.unflushed.incrementAndGet();
+            return current;
+        }
+    }
+
+    // caller holds journalLock
+    private void rotate() throws IOException {
+        if (current != null) current.close();
+        Path path = journalDir.resolve(String.format("audit-%019d%s", nextSegment++, SEGMENT_SUFFIX));
+        current = new Segment(path, FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE));
+    }
+
+    // nothing queued: close and drop a fully flushed active segment instead of keeping it until it fills
+    private void retireIdleSegment() {
+        synchronized (journalLock) {
+            if (current != null && current.written > 0 && current.unflushed.get() == 0) {
+                current.close();
+                current = null;
+            }
+        }
+    }
+
+    private void replayJournal() throws IOException {
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(journalDir)) {
+            segments = files.filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+        }
+        for (Path segment : segments) {
+            List<SignedQrRecord> records = new ArrayList<>();
+            int replayed = 0;
+            for (String line : Files.readAllLines(segment, StandardCharsets.UTF_8)) {
+                SignedQrRecord rec = fromJournalLine(line);
+                if (rec == null) continue; // torn last line from a crash mid-append; never acknowledged
+                records.add(rec);
+                if (records.size() == batchSize) {
+                    writer.replayBatch(records);
+                    replayed += records.size();
+                    records.clear();
+                }
+            }
+            writer.replayBatch(records);
+            replayed += records.size();
+            Files.delete(segment);
+            log.info("Replayed {} audit records from {}", replayed, segment.getFileName());
+        }
+        nextSegment = System.currentTimeMillis(); // later than any leftover name, which are all gone now
+    }
+
+    private byte[] toJournalLine(SignedQrRecord rec) throws IOException {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("id", rec.getId().toString());
+        line.put("leafKeyId", rec.getLeafKeyId() != null ? rec.getLeafKeyId().toString() : null);
+        line.put("payload", rec.getPayload());
+        line.put("signature", rec.getSignature() != null ? Base64.getEncoder().encodeToString(rec.getSignature()) : null);
+        line.put("filePath", rec.getFilePath());
+        line.put("createdAt", rec.getCreatedAt().toEpochMilli());
+        byte[] json = mapper.writeValueAsBytes(line);
+        byte[] out = new byte[json.length + 1];
+        System.arraycopy(json, 0, out, 0, json.length);
+        out[json.length] = '\n';
+        return out;
+    }
+
+    private SignedQrRecord fromJournalLine(String line) {
+        try {
+            JsonNode node = mapper.readTree(line);
+            SignedQrRecord rec = new SignedQrRecord(UUID.fromString(node.get("id").asText()),
+                    Instant.ofEpochMilli(node.get("createdAt").asLong()));
+            String leafKeyId = text(node, "leafKeyId");
+            rec.setLeafKeyId(leafKeyId != null ? UUID.fromString(leafKeyId) : null);
+            rec.setPayload(text(node, "payload"));
+            String signature = text(node, "signature");
+            rec.setSignature(signature != null ? Base64.getDecoder().decode(signature) : null);
+            rec.setFilePath(text(node, "filePath"));
+            return rec;
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static final class Pending {
+        final SignedQrRecord record;
+        final Segment segment;
+
+        Pending(SignedQrRecord record, Segment segment) {
+            this.record = record;
+            this.segment = segment;
+        }
+    }
+
+    // one journal file; deleted when closed and every row in it has been flushed
+    private static final class Segment {
+        final Path path;
+        final FileChannel channel;
+        final AtomicInteger unflushed = new AtomicInteger();
+        int written; // guarded by journalLock
+        volatile boolean closed;
+
+        Segment(Path path, FileChannel channel) {
+            this.path = path;
+            this.channel = channel;
+        }
+
+        void flushed(int count) {
+            if (unflushed.addAndGet(-count) == 0 && closed) delete();
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                log.warn("Closing audit journal {} failed: {}", path.getFileName(), ex.getMessage());
+            }
+            closed = true;
+            if (unflushed.get() == 0) delete();
+        }
+
+        private void delete() {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ex) {
+                log.warn("Deleting audit journal {} failed: {}", path.getFileName(), ex.getMessage());
+            }
+        }
+    }
+}
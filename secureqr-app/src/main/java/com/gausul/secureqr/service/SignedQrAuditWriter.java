@@ -0,0 +1,60 @@
+package com.gausul.secureqr.service;
+
+import com.gausul.secureqr.model.SignedQrRecord;
+import com.gausul.secureqr.model.UuidV7;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Inserts SignedQrRecord audit rows with one JDBC batch per call instead of a JPA save (and its
+ * select-before-insert for assigned ids) per record. Used where many rows are produced at once.
+ */
+@Component
+public class SignedQrAuditWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO signed_qr_records (id, leaf_key_id, payload, signature, file_path, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+    // journal replay: some records may already have been flushed before the crash
+    private static final String INSERT_IGNORE_SQL =
+            "INSERT IGNORE INTO signed_qr_records (id, leaf_key_id, payload, signature, file_path, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void writeBatch(List<SignedQrRecord> records) {
+        insert(INSERT_SQL, records);
+    }
+
+    // same, skipping rows whose id already exists
+    public void replayBatch(List<SignedQrRecord> records) {
+        insert(INSERT_IGNORE_SQL, records);
+    }
+
+    private void insert(String sql, List<SignedQrRecord> records) {
+        if (records.isEmpty()) return;
+        jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                SignedQrRecord rec = records.get(i);
+                ps.setBytes(1, UuidV7.toBytes(rec.getId()));
+                ps.setBytes(2, rec.getLeafKeyId() != null ? UuidV7.toBytes(rec.getLeafKeyId()) : null);
+                ps.setString(3, rec.getPayload());
+                ps.setBytes(4, rec.getSignature());
+                ps.setString(5, rec.getFilePath());
+                ps.setTimestamp(6, Timestamp.from(rec.getCreatedAt()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return records.size();
+            }
+        });
+    }
+}
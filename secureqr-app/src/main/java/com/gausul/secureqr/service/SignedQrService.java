@@ -0,0 +1,236 @@
+package com.gausul.secureqr.service;
+
+
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gausul.secureqr.config.RenderProperties;
+import com.gausul.secureqr.model.LeafKey;
+import com.gausul.secureqr.model.SignedQrRecord;
+import com.gausul.secureqr.verifier.QrPayloadEncoding;
+import com.gausul.secureqr.verifier.SignedQrDecoder;
+import com.gausul.secureqr.verifier.SignedQrEnvelope;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+public class SignedQrService {
+
+    @Autowired private CryptoService cryptoService;
+    @Autowired private QrGenerator qrGenerator;
+    @Autowired private IssuerService issuerService;
+    @Autowired private SignedQrAuditLog signedQrAuditLog;
+    @Autowired private TrustAnchorRegistry trustAnchorRegistry;
+    @Autowired private RenderProperties renderProperties;
+    @Autowired private CompactQrCodec compactQrCodec;
+    @Autowired private LeafKeyDirectory leafKeyDirectory;
+    @Autowired private RenderedQrCache renderedQrCache;
+    @Autowired private VerificationCache verificationCache;
+    @Autowired private RevocationRegistry revocationRegistry;
+
+    @Value("${secureqr.qr.default-encoding:json}")
+    private String defaultEncoding;
+
+    // RFC 6979 signatures: identical input -> identical QR, which makes rendered QRs cacheable
+    @Value("${secureqr.qr.deterministic-signing:false}")
+    private boolean deterministicSigning;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public byte[] createSignedQrBytesFromAlias(String data, String alias) throws Exception {
+        return createSignedQrFromAlias(data, alias, QrOutputFormat.PNG, null, null).getBytes();
+    }
+
+    // same as above, rendered as PNG, SVG or packed module matrix with the requested (or alias / default) profile;
+    // encoding json | compact (null = secureqr.qr.default-encoding).
+    // With deterministic signing the output is served from RenderedQrCache; a re-print served from the cache
+    // adds no audit row. One rendered again (after eviction, a restart, or on another node) is signed and
+    // recorded again: a second row with the same signature.
+    public RenderedQr createSignedQrFromAlias(String data, String alias, QrOutputFormat format, String profile,
+                                              String encoding) throws Exception {
+        RenderProfile renderProfile = renderProperties.resolve(profile, alias);
+        QrPayloadEncoding payloadEncoding = resolveEncoding(encoding);
+        if (!deterministicSigning) {
+            String qrText = createSignedQrText(data, alias, payloadEncoding);
+            return qrGenerator.render(qrText, format, renderProfile);
+        }
+        LeafKey lk = requireLeaf(alias);
+        String etag = renderedQrCache.etag(lk, data, format, renderProfile, payloadEncoding);
+        return renderedQrCache.get(etag,
+                () -> qrGenerator.render(createSignedQrText(lk, data, payloadEncoding), format, renderProfile));
+    }
+
+    /**
+     * ETag of what createSignedQrFromAlias would return for these arguments, computed without signing or
+     * rendering; null unless deterministic signing is on (random signatures make every response unique).
+     * Throws like createSignedQrFromAlias for an unknown or revoked alias.
+     */
+    public String etagFor(String data, String alias, QrOutputFormat format, String profile, String encoding)
+            throws Exception {
+        if (!deterministicSigning) return null;
+        // same checks as signing: an unknown or revoked alias must not keep answering 304
+        LeafKey lk = requireLeaf(alias);
+        return renderedQrCache.etag(lk, data, format, renderProperties.resolve(profile, alias), resolveEncoding(encoding));
+    }
+
+    public String createSignedQrText(String data, String alias) throws Exception {
+        return createSignedQrText(data, alias, QrPayloadEncoding.JSON);
+    }
+
+    // signs data with the alias' leaf key, records the audit row and returns the QR text (JSON or compact envelope)
+    public String createSignedQrText(String data, String alias, QrPayloadEncoding encoding) throws Exception {
+        return createSignedQrText(requireLeaf(alias), data, encoding);
+    }
+
+    private String createSignedQrText(LeafKey lk, String data, QrPayloadEncoding encoding) throws Exception {
+        IssuedQr issued = issue(lk, data, encoding);
+
+        // persist audit record (synchronous save, or write-behind when secureqr.audit.async=true)
+        signedQrAuditLog.record(issued.getRecord());
+
+        return issued.getText();
+    }
+
+    private LeafKey requireLeaf(String alias) {
+        LeafKey lk = issuerService.getLeafByAlias(alias);
+        if (lk == null) throw new IllegalArgumentException("alias not found");
+        if (lk.isRevoked()) throw new IllegalArgumentException("leaf key revoked");
+        return lk;
+    }
+
+    /**
+     * Signs data with an already-resolved leaf and builds the QR text plus its audit record, without
+     * persisting it (callers save it, one by one or in batches). Thread-safe.
+     */
+    public IssuedQr issue(LeafKey lk, String data, QrPayloadEncoding encoding) throws Exception {
+        byte[] leafPriv = lk.getPrivateKeyEncrypted(); // decrypt if encrypted
+        byte[] leafPub = lk.getPublicKey();
+        byte[] issuerSig = lk.getIssuerSignature();
+
+        // sign payload
+        byte[] payloadBytes = data.getBytes(StandardCharsets.UTF_8);
+        byte[] payloadSignature = deterministicSigning
+                ? cryptoService.signEcdsaDeterministic(payloadBytes, leafPriv)
+                : cryptoService.signEcdsa(payloadBytes, leafPriv);
+
+        String qrText;
+        if (encoding == QrPayloadEncoding.KEY_ID) {
+            qrText = compactQrCodec.encodeKeyId(data, payloadSignature, lk.getId());
+        } else if (encoding == QrPayloadEncoding.COMPACT) {
+            qrText = compactQrCodec.encode(data, payloadSignature, leafPub, lk.getIssuerId(), issuerSig);
+        } else {
+            qrText = encodeJson(data, payloadSignature, leafPub, lk.getIssuerId(), issuerSig);
+        }
+
+        SignedQrRecord rec = new SignedQrRecord();
+        rec.setLeafKeyId(lk.getId());
+        rec.setPayload(data);
+        rec.setSignature(payloadSignature);
+        // optionally save filePath if you wrote a file; here it's inline bytes
+        return new IssuedQr(qrText, rec);
+    }
+
+    /**
+     * JSON QR text; the JSON format is the one place keys and signatures are Base64.
+     * Needs no injected collaborators (benchmarked on its own in secureqr-benchmarks).
+     */
+    public String encodeJson(String data, byte[] payloadSignature, byte[] leafPub, String issuerId, byte[] issuerSig)
+            throws Exception {
+        Base64.Encoder b64 = Base64.getEncoder();
+        Map<String, String> qrJson = new HashMap<>();
+        qrJson.put("payload", data);
+        qrJson.put("signature", b64.encodeToString(payloadSignature));
+        qrJson.put("pub", b64.encodeToString(leafPub));
+        qrJson.put("issuerId", issuerId);
+        qrJson.put("issuerSignature", b64.encodeToString(issuerSig));
+
+        return mapper.writeValueAsString(qrJson);
+    }
+
+    // request encoding name -> enum, falling back to secureqr.qr.default-encoding
+    public QrPayloadEncoding resolveEncoding(String encoding) {
+        return QrPayloadEncoding.fromName(encoding != null ? encoding : defaultEncoding);
+    }
+
+    /**
+     * Verify decoded QR text (JSON or "SQ1:" compact envelope, detected by prefix):
+     * - payload signature using the embedded leaf pub
+     * - issuerSignature over the leaf pub using the trusted root for issuerId (in-memory, memoised chain)
+     * - revocation of the leaf or of this QR (in-memory, RevocationRegistry); a revoked leaf makes
+     *   issuerValid false, a revoked QR payloadValid false, and "revoked" names which one
+     * Key-id QRs take the leaf pub and its already-validated chain from LeafKeyDirectory instead.
+     * Verdicts for the same text are served from VerificationCache for its TTL (read-only map).
+     */
+    public Map<String, Object> verifySignedQrText(String decoded) throws Exception {
+        return verificationCache.verify(decoded, () -> verifySignedQrText(decoded, trustAnchorRegistry::verifyChain));
+    }
+
+    // issuer-chain check used by verifySignedQrText; bulk verification passes a per-batch deduplicating one
+    @FunctionalInterface
+    public interface ChainVerifier {
+        boolean verify(String issuerId, byte[] leafPub, byte[] issuerSignature) throws Exception;
+    }
+
+    public Map<String, Object> verifySignedQrText(String decoded, ChainVerifier chainVerifier) throws Exception {
+        SignedQrEnvelope envelope;
+        if (CompactQrCodec.isCompact(decoded)) {
+            envelope = compactQrCodec.decode(decoded);
+        } else {
+            Map<String, String> json = SignedQrDecoder.parseJson(decoded);
+            envelope = SignedQrDecoder.fromJson(json);
+            if (envelope == null) return Map.of("error", "missing fields", "decoded", json);
+        }
+
+        if (envelope.getLeafId() != null) return verifyKeyIdQr(envelope);
+
+        // 1) verify payload signature using leaf public key
+        boolean payloadValid = cryptoService.verifyEcdsa(envelope.getPayload().getBytes(StandardCharsets.UTF_8),
+                envelope.getSignature(), envelope.getLeafPublicKey());
+
+        // 2) verify issuer signature -> root verifies leafPub (no DB, cached once validated)
+        boolean issuerValid = chainVerifier.verify(envelope.getIssuerId(), envelope.getLeafPublicKey(), envelope.getIssuerSignature());
+        byte[] rootPub = trustAnchorRegistry.getPublicKey(envelope.getIssuerId());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("decoded", envelope.toDisplayMap());
+        result.put("encoding", envelope.getEncoding() == QrPayloadEncoding.COMPACT ? "compact" : "json");
+        putVerdict(result, payloadValid, issuerValid, envelope.getLeafPublicKey(), envelope.getSignature());
+        if (rootPub != null) result.put("issuerTrustedPublic", Base64.getEncoder().encodeToString(rootPub));
+        return result;
+    }
+
+    // payloadValid / issuerValid with revocations applied, plus "revoked": false | "leaf" | "qr"
+    private void putVerdict(Map<String, Object> result, boolean payloadValid, boolean issuerValid,
+                            byte[] leafPub, byte[] signature) throws Exception {
+        boolean leafRevoked = revocationRegistry.isLeafRevoked(leafPub);
+        boolean qrRevoked = revocationRegistry.isQrRevoked(signature);
+        result.put("payloadValid", payloadValid && !qrRevoked);
+        result.put("issuerValid", issuerValid && !leafRevoked);
+        result.put("revoked", leafRevoked ? "leaf" : qrRevoked ? "qr" : false);
+    }
+
+    private Map<String, Object> verifyKeyIdQr(SignedQrEnvelope envelope) throws Exception {
+        LeafKeyDirectory.Entry leaf = leafKeyDirectory.get(envelope.getLeafId());
+        if (leaf == null) {
+            return Map.of("error", "unknown leaf key", "decoded", envelope.toDisplayMap());
+        }
+
+        boolean payloadValid = cryptoService.verifyEcdsa(envelope.getPayload().getBytes(StandardCharsets.UTF_8),
+                envelope.getSignature(), leaf.getPublicKey());
+        byte[] rootPub = trustAnchorRegistry.getPublicKey(leaf.getIssuerId());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("decoded", envelope.toDisplayMap());
+        result.put("encoding", "key-id");
+        putVerdict(result, payloadValid, leaf.isChainValid(), leaf.getPublicKey(), envelope.getSignature());
+        result.put("issuerId", leaf.getIssuerId());
+        if (rootPub != null) result.put("issuerTrustedPublic", Base64.getEncoder().encodeToString(rootPub));
+        return result;
+    }
+}
@@ -0,0 +1,145 @@
+package com.gausul.secureqr.service;
+
+import com.gausul.secureqr.model.Issuer;
+import com.gausul.secureqr.repository.IssuerRepository;
+import com.gausul.secureqr.verifier.SignedQrVerifier;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory view of the trusted issuers (root public keys), keyed by issuerId.
+ * Loaded at startup, updated whenever IssuerService creates an issuer and re-read from the DB on a
+ * fixed delay, so the scan path never queries the issuers table.
+ *
+ * Also memoises leaf chains (issuerId, leaf public key, issuer signature) that already verified,
+ * so a known leaf costs a map lookup instead of a second ECDSA verify.
+ */
+@Service
+public class TrustAnchorRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(TrustAnchorRegistry.class);
+
+    private final IssuerRepository issuerRepository;
+    private final CryptoService cryptoService;
+
+    // issuerId -> root public key (X.509 DER); replaced wholesale, never mutated
+    private volatile Map<String, byte[]> anchors = Map.of();
+    // oldest issuer; used for QRs that don't carry an issuerId
+    private volatile String defaultIssuerId;
+
+    // bumped whenever the anchor set changes, so holders of pre-validated chains know to re-check
+    private volatile long generation;
+
+    // only successful chains are remembered
+    private final Cache<ChainKey, Boolean> validatedChains;
+
+    @Autowired
+    public TrustAnchorRegistry(IssuerRepository issuerRepository,
+                               CryptoService cryptoService,
+                               @Value("${secureqr.trust.chain-cache.maximum-size:10000}") long chainCacheMaximumSize,
+                               @Value("${secureqr.trust.chain-cache.expire-after-write:PT1H}") Duration chainCacheExpireAfterWrite) {
+        this.issuerRepository = issuerRepository;
+        this.cryptoService = cryptoService;
+        this.validatedChains = Caffeine.newBuilder()
+                .maximumSize(chainCacheMaximumSize)
+                .expireAfterWrite(chainCacheExpireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    // Full reload from the issuers table (startup + periodic refresh).
+    @Scheduled(fixedDelayString = "${secureqr.trust.refresh-interval:PT5M}",
+            initialDelayString = "${secureqr.trust.refresh-interval:PT5M}")
+    public synchronized void reload() {
+        List<Issuer> issuers = new ArrayList<>(issuerRepository.findAll());
+        issuers.sort(Comparator.comparing(Issuer::getCreatedAt));
+
+        Map<String, byte[]> next = new HashMap<>();
+        for (Issuer issuer : issuers) {
+            next.put(issuer.getId(), issuer.getPublicKey());
+        }
+        replace(next, issuers.isEmpty() ? null : issuers.get(0).getId());
+        log.debug("Trust anchors loaded: {}", next.keySet());
+    }
+
+    // Called when an issuer is created / re-keyed in this process.
+    public synchronized void register(Issuer issuer) {
+        Map<String, byte[]> next = new HashMap<>(anchors);
+        next.put(issuer.getId(), issuer.getPublicKey());
+        replace(next, defaultIssuerId != null ? defaultIssuerId : issuer.getId());
+    }
+
+    private void replace(Map<String, byte[]> next, String nextDefaultIssuerId) {
+        // a changed or removed anchor invalidates every chain memoised under it
+        boolean changed = !sameAnchors(next, anchors);
+        anchors = Map.copyOf(next);
+        defaultIssuerId = nextDefaultIssuerId;
+        if (changed) {
+            generation++;
+            validatedChains.invalidateAll();
+        }
+    }
+
+    private static boolean sameAnchors(Map<String, byte[]> a, Map<String, byte[]> b) {
+        if (!a.keySet().equals(b.keySet())) return false;
+        for (Map.Entry<String, byte[]> entry : a.entrySet()) {
+            if (!Arrays.equals(entry.getValue(), b.get(entry.getKey()))) return false;
+        }
+        return true;
+    }
+
+    public long generation() {
+        return generation;
+    }
+
+    /**
+     * Root public key for issuerId, or for the default (oldest) issuer when issuerId is null.
+     * Returns null for unknown issuers.
+     */
+    public byte[] getPublicKey(String issuerId) {
+        String id = issuerId != null ? issuerId : defaultIssuerId;
+        return id == null ? null : anchors.get(id);
+    }
+
+    /**
+     * Verifies that the issuer signed leafPub (X.509 DER). Successful results are memoised, so repeated
+     * scans of QRs from the same leaf skip the ECDSA verify entirely.
+     */
+    public boolean verifyChain(String issuerId, byte[] leafPub, byte[] issuerSignature) throws Exception {
+        byte[] rootPub = getPublicKey(issuerId);
+        if (rootPub == null) return false;
+
+        ChainKey chainKey = new ChainKey(issuerId != null ? issuerId : defaultIssuerId, leafPub, issuerSignature);
+        if (validatedChains.getIfPresent(chainKey) != null) return true;
+
+        boolean valid = cryptoService.verifyEcdsa(chainMessage(leafPub), issuerSignature, rootPub);
+        if (valid) {
+            validatedChains.put(chainKey, Boolean.TRUE);
+        }
+        return valid;
+    }
+
+    // the bytes an issuer signs for a leaf (Base64 text of its X.509 key); shared with the standalone verifier
+    public static byte[] chainMessage(byte[] leafPub) {
+        return SignedQrVerifier.chainMessage(leafPub);
+    }
+
+    // exposed for metrics binding (CaffeineCacheMetrics)
+    public Cache<ChainKey, Boolean> chainCache() {
+        return validatedChains;
+    }
+}
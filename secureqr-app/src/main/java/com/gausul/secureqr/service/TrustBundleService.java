@@ -0,0 +1,93 @@
+package com.gausul.secureqr.service;
+
+import com.gausul.secureqr.model.Issuer;
+import com.gausul.secureqr.model.LeafKey;
+import com.gausul.secureqr.model.Revocation;
+import com.gausul.secureqr.repository.IssuerRepository;
+import com.gausul.secureqr.repository.LeafKeyRepository;
+import com.gausul.secureqr.repository.RevocationRepository;
+import com.gausul.secureqr.verifier.TrustBundle;
+import com.gausul.secureqr.verifier.TrustBundleWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Exports trust bundles (see TrustBundle) from the database, signed by the root (oldest) issuer.
+ * A delta holds the leaves and revocations added since the base bundle's watermarks, re-reading the
+ * last commit-lag window so rows that committed late are not skipped (duplicates are harmless).
+ */
+@Service
+public class TrustBundleService {
+
+    private final IssuerRepository issuerRepository;
+    private final LeafKeyRepository leafKeyRepository;
+    private final RevocationRepository revocationRepository;
+    private final CryptoService cryptoService;
+    private final Duration commitLag;
+
+    @Autowired
+    public TrustBundleService(IssuerRepository issuerRepository,
+                              LeafKeyRepository leafKeyRepository,
+                              RevocationRepository revocationRepository,
+                              CryptoService cryptoService,
+                              @Value("${secureqr.key-changes.commit-lag:PT5S}") Duration commitLag) {
+        this.issuerRepository = issuerRepository;
+        this.leafKeyRepository = leafKeyRepository;
+        this.revocationRepository = revocationRepository;
+        this.cryptoService = cryptoService;
+        this.commitLag = commitLag;
+    }
+
+    public byte[] exportFull() throws Exception {
+        return export(null);
+    }
+
+    public byte[] exportDelta(TrustBundle.Watermarks base) throws Exception {
+        return export(base);
+    }
+
+    private byte[] export(TrustBundle.Watermarks base) throws Exception {
+        long now = System.currentTimeMillis();
+
+        List<Issuer> issuers = new ArrayList<>(issuerRepository.findAll());
+        if (issuers.isEmpty()) throw new IllegalStateException("no issuers to export");
+        issuers.sort(Comparator.comparing(Issuer::getCreatedAt));
+        Issuer signer = issuers.get(0);
+        LinkedHashMap<String, byte[]> roots = new LinkedHashMap<>();
+        for (Issuer issuer : issuers) roots.put(issuer.getId(), issuer.getPublicKey());
+
+        List<LeafKey> leafKeys = base == null
+                ? leafKeyRepository.findAll()
+                : leafKeyRepository.findByCreatedAtGreaterThanEqualOrderByCreatedAtAsc(
+                        Instant.ofEpochMilli(base.getLeafWatermark()).minus(commitLag));
+        long leafWatermark = base != null ? base.getLeafWatermark() : 0;
+        List<TrustBundleWriter.Leaf> leaves = new ArrayList<>(leafKeys.size());
+        for (LeafKey lk : leafKeys) {
+            leaves.add(new TrustBundleWriter.Leaf(lk.getId(), lk.getIssuerId(), lk.getPublicKey(), lk.getIssuerSignature()));
+            leafWatermark = Math.max(leafWatermark, lk.getCreatedAt().toEpochMilli());
+        }
+
+        List<Revocation> rows = base == null
+                ? revocationRepository.findRevocationsSince(-1, Instant.now())
+                : revocationRepository.findRevocationsSince(base.getRevocationSeq(),
+                        Instant.ofEpochMilli(base.getCreatedAt()).minus(commitLag));
+        long revocationSeq = base != null ? base.getRevocationSeq() : 0;
+        List<byte[]> revocations = new ArrayList<>(rows.size());
+        for (Revocation row : rows) {
+            revocations.add(row.getFingerprint());
+            revocationSeq = Math.max(revocationSeq, row.getId());
+        }
+
+        return TrustBundleWriter.write(new TrustBundle.Watermarks(now, leafWatermark, revocationSeq), base,
+                roots, signer.getId(), leaves, revocations,
+                content -> cryptoService.signEcdsa(content, signer.getPrivateKeyEncrypted()));
+    }
+}
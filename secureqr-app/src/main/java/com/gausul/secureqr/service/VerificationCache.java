@@ -0,0 +1,109 @@
+package com.gausul.secureqr.service;
+
+import com.gausul.secureqr.model.KeyChange;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Verdicts for recently verified QR texts, keyed by SHA-256 of the decoded text, so a ticket scanned
+ * again (re-entry, double tap, another lane) skips parsing and both ECDSA checks.
+ *
+ * - entries expire after secureqr.verify-cache.ttl; results carrying "error" are never cached
+ * - a verdict computed under an older trust-anchor generation is recomputed
+ * - every key change other than a new alias binding (revocations, issuer changes, "all") clears the
+ *   cache, locally and on the other nodes via KeyChangeLog
+ *
+ * Metrics: cache.* {cache=secureqr.verify.results} (hit ratio) and secureqr.verify.cache.time.saved
+ * (seconds of verification skipped, measured as the original cost of each verdict served from cache).
+ */
+@Component
+public class VerificationCache {
+
+    private final CryptoService cryptoService;
+    private final TrustAnchorRegistry trustAnchorRegistry;
+    private final Cache<String, Verdict> cache;
+    private final Counter timeSavedCounter;
+
+    @Autowired
+    public VerificationCache(CryptoService cryptoService,
+                             TrustAnchorRegistry trustAnchorRegistry,
+                             KeyChangeLog keyChangeLog,
+                             MeterRegistry meterRegistry,
+                             @Value("${secureqr.verify-cache.maximum-size:100000}") long maximumSize,
+                             @Value("${secureqr.verify-cache.ttl:PT5M}") Duration ttl) {
+        this.cryptoService = cryptoService;
+        this.trustAnchorRegistry = trustAnchorRegistry;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.timeSavedCounter = Counter.builder("secureqr.verify.cache.time.saved")
+                .description("verification time avoided by serving cached verdicts")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        keyChangeLog.addListener(change -> {
+            if (!KeyChange.SCOPE_LEAF_ALIAS.equals(change.getScope())) invalidateAll();
+        });
+    }
+
+    private static final class Verdict {
+        final Map<String, Object> result;
+        final long costNanos;
+        final long anchorGeneration;
+
+        Verdict(Map<String, Object> result, long costNanos, long anchorGeneration) {
+            this.result = result;
+            this.costNanos = costNanos;
+            this.anchorGeneration = anchorGeneration;
+        }
+    }
+
+    /**
+     * Cached verdict for this QR text, or verify.call() (cached unless it reports an error).
+     * The returned map is read-only.
+     */
+    public Map<String, Object> verify(String decoded, Callable<Map<String, Object>> verify) throws Exception {
+        String key = fingerprint(decoded);
+        long generation = trustAnchorRegistry.generation();
+        Verdict cached = cache.getIfPresent(key);
+        if (cached != null && cached.anchorGeneration == generation) {
+            timeSavedCounter.increment(cached.costNanos / 1e9);
+            return cached.result;
+        }
+
+        long start = System.nanoTime();
+        Map<String, Object> result = Collections.unmodifiableMap(new LinkedHashMap<>(verify.call()));
+        if (!result.containsKey("error")) {
+            cache.put(key, new Verdict(result, System.nanoTime() - start, generation));
+        }
+        return result;
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    // exposed for metrics binding (CaffeineCacheMetrics)
+    public Cache<String, ?> nativeCache() {
+        return cache;
+    }
+
+    private String fingerprint(String decoded) throws Exception {
+        byte[] digest = cryptoService.getEngines().sha256().with(md -> md.digest(decoded.getBytes(StandardCharsets.UTF_8)));
+        return HexFormat.of().formatHex(digest);
+    }
+}
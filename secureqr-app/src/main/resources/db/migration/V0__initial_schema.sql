@@ -0,0 +1,38 @@
+-- ==========================================================================
+--  Initial schema: the tables ddl-auto=update created before migrations existed
+-- ==========================================================================
+-- Only runs on an empty database. An existing database gets a Flyway baseline at version 0 instead
+-- (spring.flyway.baseline-on-migrate), so this is skipped and V1.. convert the tables in place.
+
+CREATE TABLE issuers (
+    id                    VARCHAR(255) NOT NULL,
+    display_name          VARCHAR(255) NULL,
+    public_key            TEXT         NULL,
+    private_key_encrypted TEXT         NULL,
+    created_at            DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE leaf_keys (
+    id                    VARCHAR(255) NOT NULL,
+    alias                 VARCHAR(255) NULL,
+    issuer_id             VARCHAR(255) NOT NULL,
+    public_key            TEXT         NOT NULL,
+    private_key_encrypted TEXT         NULL,
+    issuer_signature      TEXT         NOT NULL,
+    created_at            DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_leaf_alias (alias),
+    INDEX idx_issuer_id (issuer_id)
+);
+
+CREATE TABLE signed_qr_records (
+    id          VARCHAR(255) NOT NULL,
+    leaf_key_id VARCHAR(255) NULL,
+    payload     TEXT         NULL,
+    signature   TEXT         NULL,
+    file_path   VARCHAR(255) NULL,
+    created_at  DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_qr_alias (leaf_key_id)
+);
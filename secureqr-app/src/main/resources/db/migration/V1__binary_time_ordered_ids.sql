@@ -0,0 +1,43 @@
+-- ==========================================================================
+--  leaf_keys / signed_qr_records: VARCHAR(36) UUID keys -> BINARY(16)
+-- ==========================================================================
+-- Applied by Flyway on startup, before Hibernate validates the UUID / BINARY(16) mapping.
+--
+-- Existing ids keep their value (they are printed in /issue responses and embedded in key-id QRs),
+-- only their storage changes: UUID_TO_BIN(id) without the swap flag, i.e. the same big-endian
+-- layout the application writes. New rows get UUIDv7 ids and append to the end of the clustered index.
+--
+-- Each ALTER below rebuilds the table. For very large signed_qr_records tables run the same steps
+-- through pt-online-schema-change / gh-ost instead of in place.
+
+-- ---------- leaf_keys ----------
+ALTER TABLE leaf_keys ADD COLUMN id_bin BINARY(16) NULL;
+UPDATE leaf_keys SET id_bin = UUID_TO_BIN(id);
+
+ALTER TABLE leaf_keys
+    DROP PRIMARY KEY,
+    DROP COLUMN id,
+    RENAME COLUMN id_bin TO id,
+    MODIFY COLUMN id BINARY(16) NOT NULL,
+    ADD PRIMARY KEY (id);
+
+-- ---------- signed_qr_records ----------
+ALTER TABLE signed_qr_records
+    ADD COLUMN id_bin BINARY(16) NULL,
+    ADD COLUMN leaf_key_id_bin BINARY(16) NULL;
+UPDATE signed_qr_records
+   SET id_bin = UUID_TO_BIN(id),
+       leaf_key_id_bin = IF(leaf_key_id IS NULL, NULL, UUID_TO_BIN(leaf_key_id));
+
+ALTER TABLE signed_qr_records
+    DROP INDEX idx_qr_alias,
+    DROP PRIMARY KEY,
+    DROP COLUMN id,
+    DROP COLUMN leaf_key_id,
+    RENAME COLUMN id_bin TO id,
+    RENAME COLUMN leaf_key_id_bin TO leaf_key_id,
+    MODIFY COLUMN id BINARY(16) NOT NULL,
+    ADD PRIMARY KEY (id),
+    ADD INDEX idx_qr_alias (leaf_key_id);
+
+-- Reading ids by hand: SELECT BIN_TO_UUID(id), BIN_TO_UUID(leaf_key_id), ... FROM signed_qr_records;
@@ -0,0 +1,52 @@
+-- ==========================================================================
+--  Keys and signatures: Base64 TEXT LOBs -> raw DER in VARBINARY
+-- ==========================================================================
+-- Applied by Flyway on startup (after V1), before Hibernate validates the byte[] mapping.
+--
+-- FROM_BASE64 gives back exactly the bytes the application used to Base64-encode: X.509 public keys,
+-- PKCS#8 private keys and DER ECDSA signatures. Sizes: P-256 X.509 = 91 bytes, PKCS#8 ~ 138 bytes,
+-- DER signature <= 72 bytes; VARBINARY keeps them in-row instead of off-page LOB storage.
+--
+-- The step aborts if any existing value is not valid Base64 (FROM_BASE64 returns NULL and the
+-- NOT NULL MODIFY fails); inspect with
+--   SELECT id FROM leaf_keys WHERE public_key IS NOT NULL AND FROM_BASE64(public_key) IS NULL;
+
+-- ---------- issuers ----------
+ALTER TABLE issuers
+    ADD COLUMN public_key_bin VARBINARY(128) NULL,
+    ADD COLUMN private_key_encrypted_bin VARBINARY(1024) NULL;
+UPDATE issuers
+   SET public_key_bin = FROM_BASE64(public_key),
+       private_key_encrypted_bin = FROM_BASE64(private_key_encrypted);
+ALTER TABLE issuers
+    DROP COLUMN public_key,
+    DROP COLUMN private_key_encrypted,
+    RENAME COLUMN public_key_bin TO public_key,
+    RENAME COLUMN private_key_encrypted_bin TO private_key_encrypted;
+
+-- ---------- leaf_keys ----------
+ALTER TABLE leaf_keys
+    ADD COLUMN public_key_bin VARBINARY(128) NULL,
+    ADD COLUMN private_key_encrypted_bin VARBINARY(1024) NULL,
+    ADD COLUMN issuer_signature_bin VARBINARY(80) NULL;
+UPDATE leaf_keys
+   SET public_key_bin = FROM_BASE64(public_key),
+       private_key_encrypted_bin = FROM_BASE64(private_key_encrypted),
+       issuer_signature_bin = FROM_BASE64(issuer_signature);
+ALTER TABLE leaf_keys
+    DROP COLUMN public_key,
+    DROP COLUMN private_key_encrypted,
+    DROP COLUMN issuer_signature,
+    RENAME COLUMN public_key_bin TO public_key,
+    RENAME COLUMN private_key_encrypted_bin TO private_key_encrypted,
+    RENAME COLUMN issuer_signature_bin TO issuer_signature,
+    MODIFY COLUMN public_key VARBINARY(128) NOT NULL,
+    MODIFY COLUMN issuer_signature VARBINARY(80) NOT NULL;
+
+-- ---------- signed_qr_records ----------
+-- Large table: batch the UPDATE (e.g. by id range) or use pt-online-schema-change / gh-ost.
+ALTER TABLE signed_qr_records ADD COLUMN signature_bin VARBINARY(80) NULL;
+UPDATE signed_qr_records SET signature_bin = FROM_BASE64(signature);
+ALTER TABLE signed_qr_records
+    DROP COLUMN signature,
+    RENAME COLUMN signature_bin TO signature;
@@ -0,0 +1,13 @@
+-- ==========================================================================
+--  key_changes: cluster-wide cache invalidation log (see KeyChangeLog)
+-- ==========================================================================
+-- Applied by Flyway on startup; Hibernate only validates (ddl-auto=validate).
+
+CREATE TABLE IF NOT EXISTS key_changes (
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    scope      VARCHAR(32)  NOT NULL,
+    key_ref    VARCHAR(255) NULL,
+    changed_at DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_key_change_at (changed_at)
+);
@@ -0,0 +1,19 @@
+-- ==========================================================================
+--  Revocation of leaf keys and individual signed QRs (see RevocationRegistry)
+-- ==========================================================================
+-- Applied by Flyway on startup; Hibernate only validates (ddl-auto=validate).
+
+ALTER TABLE leaf_keys ADD COLUMN revoked_at DATETIME(6) NULL;
+
+-- id is the revocation sequence verifiers refresh from
+CREATE TABLE IF NOT EXISTS revocations (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    kind        VARCHAR(8)   NOT NULL,
+    fingerprint BINARY(32)   NOT NULL,
+    subject_id  BINARY(16)   NULL,
+    reason      VARCHAR(255) NULL,
+    revoked_at  DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_revocation_fingerprint (fingerprint),
+    INDEX idx_revocation_at (revoked_at)
+);
@@ -0,0 +1,69 @@
+package com.gausul.secureqr.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UuidV7Test {
+
+    @Test
+    void idsAreVersion7AndVariant2() {
+        UUID id = UuidV7.generate();
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+    }
+
+    @Test
+    void idsSortInCreationOrderAsBinary() {
+        // far more than 4096 per millisecond, so the sequence overflows into the next millisecond too
+        List<byte[]> ids = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) ids.add(UuidV7.toBytes(UuidV7.generate()));
+
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(Arrays.compareUnsigned(ids.get(i - 1), ids.get(i)) < 0, "id " + i + " out of order");
+        }
+    }
+
+    @Test
+    void idsAreUniqueAcrossThreads() throws Exception {
+        List<UUID> ids = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) ids.add(UuidV7.generate());
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) thread.join();
+        assertEquals(40_000, new HashSet<>(ids).size());
+    }
+
+    @Test
+    void timestampIsUnixMillis() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7.generate();
+        long millis = id.getMostSignificantBits() >>> 16;
+        // may run ahead by a few ms if earlier ids borrowed from the next millisecond
+        assertTrue(millis >= before && millis < before + 1000);
+    }
+
+    @Test
+    void bytesRoundTrip() {
+        UUID id = UUID.fromString("01890a5d-ac96-774b-bcce-b302099a8057");
+        byte[] bytes = UuidV7.toBytes(id);
+        assertArrayEquals(new byte[]{0x01, (byte) 0x89, 0x0a, 0x5d}, Arrays.copyOf(bytes, 4));
+        assertEquals(id, UuidV7.fromBytes(bytes));
+        assertThrows(IllegalArgumentException.class, () -> UuidV7.fromBytes(new byte[15]));
+    }
+}
@@ -0,0 +1,51 @@
+package com.gausul.secureqr.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    @Test
+    void neverReportsAnAddedFingerprintMissing() throws Exception {
+        BloomFilter filter = new BloomFilter(10_000, 0.001);
+        List<byte[]> added = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            byte[] fingerprint = fingerprint("revoked-" + i);
+            filter.add(fingerprint);
+            added.add(fingerprint);
+        }
+        for (byte[] fingerprint : added) assertTrue(filter.mightContain(fingerprint));
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheTargetAtCapacity() throws Exception {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) filter.add(fingerprint("revoked-" + i));
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(fingerprint("valid-" + i))) falsePositives++;
+        }
+        // 1% target; allow generous slack, a broken double hash lands far above this
+        assertTrue(falsePositives < 2_000, falsePositives + " false positives in 100000");
+    }
+
+    @Test
+    void emptyFilterContainsNothing() throws Exception {
+        BloomFilter filter = new BloomFilter(0, 0.001);
+        assertEquals(1, filter.capacity());
+        assertFalse(filter.mightContain(fingerprint("anything")));
+    }
+
+    private static byte[] fingerprint(String s) throws Exception {
+        return MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,75 @@
+package com.gausul.secureqr.service;
+
+import com.gausul.secureqr.verifier.EcKeys;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeterministicEcdsaTest {
+
+    // RFC 6979 A.2.5, P-256
+    private static final BigInteger X = hex("C9AFA9D845BA75166B5C215767B1D6934E50C3DB36E89B127B8A622B120F6721");
+    private static final BigInteger UX = hex("60FED4BA255A9D31C961EB74C6356D68C049B8923B61FA6CE669622E60F29FB6");
+    private static final BigInteger UY = hex("7903FE1008B8BC99A41AE9E95628BC64F2F1B20C2D7E9F5177A3C294D4462299");
+
+    @Test
+    void matchesRfc6979SampleVector() throws Exception {
+        assertSignature("sample",
+                "EFD48B2AACB6A8FD1140DD9CD45E81D69D2C877B56AAF991C34D0EA84EAF3716",
+                "F7CB1C942D657C41D436C7A1B6E29F65F3E900DBB9AFF4064DC4AB2F843ACDA8");
+    }
+
+    @Test
+    void matchesRfc6979TestVector() throws Exception {
+        assertSignature("test",
+                "F1ABB023518351CD71D881567B1EA663ED3EFCF6C5132B354F28D3B0B7D38367",
+                "019F4113742A2B14BD25926B49C649155F267E60D3814B4C0CC84250E46F0083");
+    }
+
+    @Test
+    void signaturesVerifyWithJca() throws Exception {
+        PublicKey publicKey = KeyFactory.getInstance("EC")
+                .generatePublic(new ECPublicKeySpec(new ECPoint(UX, UY), EcKeys.P256));
+        for (int i = 0; i < 50; i++) {
+            byte[] data = ("payload-" + i).getBytes(StandardCharsets.UTF_8);
+            byte[] signature = DeterministicEcdsa.sign(sha256(data), X);
+
+            Signature verifier = Signature.getInstance("SHA256withECDSA");
+            verifier.initVerify(publicKey);
+            verifier.update(data);
+            assertTrue(verifier.verify(signature), "signature " + i);
+            assertArrayEquals(signature, DeterministicEcdsa.sign(sha256(data), X));
+        }
+    }
+
+    @Test
+    void rejectsNonSha256Input() {
+        assertThrows(IllegalArgumentException.class, () -> DeterministicEcdsa.sign(new byte[20], X));
+    }
+
+    private static void assertSignature(String message, String r, String s) throws Exception {
+        byte[] der = DeterministicEcdsa.sign(sha256(message.getBytes(StandardCharsets.UTF_8)), X);
+        assertEquals(r + s, HexFormat.of().withUpperCase().formatHex(EcKeys.derToRaw(der)));
+    }
+
+    private static byte[] sha256(byte[] data) throws Exception {
+        return MessageDigest.getInstance("SHA-256").digest(data);
+    }
+
+    private static BigInteger hex(String hex) {
+        return new BigInteger(hex, 16);
+    }
+}
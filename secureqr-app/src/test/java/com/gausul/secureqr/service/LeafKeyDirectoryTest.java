@@ -0,0 +1,49 @@
+package com.gausul.secureqr.service;
+
+import com.gausul.secureqr.repository.LeafKeyRepository;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LeafKeyDirectoryTest {
+
+    private final AtomicInteger findByIdCalls = new AtomicInteger();
+
+    @Test
+    void unknownIdReadsTheRepositoryOnce() {
+        LeafKeyDirectory directory = new LeafKeyDirectory(emptyRepository(), null, 1000, Duration.ofMinutes(1));
+        UUID forged = UUID.randomUUID();
+        for (int i = 0; i < 50; i++) assertNull(directory.get(forged));
+        assertEquals(1, findByIdCalls.get());
+
+        assertNull(directory.get(UUID.randomUUID()));
+        assertEquals(2, findByIdCalls.get());
+    }
+
+    @Test
+    void unknownIdIsReadAgainAfterTheTtl() throws Exception {
+        LeafKeyDirectory directory = new LeafKeyDirectory(emptyRepository(), null, 1000, Duration.ofMillis(50));
+        UUID forged = UUID.randomUUID();
+        assertNull(directory.get(forged));
+        Thread.sleep(100);
+        assertNull(directory.get(forged));
+        assertEquals(2, findByIdCalls.get());
+    }
+
+    // a leaf_keys table with no rows, counting point lookups
+    private LeafKeyRepository emptyRepository() {
+        return (LeafKeyRepository) Proxy.newProxyInstance(LeafKeyRepository.class.getClassLoader(),
+                new Class<?>[]{LeafKeyRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("findById")) throw new UnsupportedOperationException(method.getName());
+                    findByIdCalls.incrementAndGet();
+                    return Optional.empty();
+                });
+    }
+}
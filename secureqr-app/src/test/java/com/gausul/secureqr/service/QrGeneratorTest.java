@@ -0,0 +1,121 @@
+package com.gausul.secureqr.service;
+
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.Encoder;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QrGeneratorTest {
+
+    private static final Pattern SVG_RUN = Pattern.compile("M(\\d+),(\\d+)h(\\d+)v1h-(\\d+)z");
+
+    private final QrGenerator generator = new QrGenerator();
+
+    @Test
+    void packedMatrixHasTheEncodersModules() throws Exception {
+        for (String text : new String[]{"ticket-42", "z".repeat(500)}) {
+            for (ErrorCorrectionLevel ecc : ErrorCorrectionLevel.values()) {
+                RenderProfile profile = new RenderProfile("test", ecc, 4, 4, 40);
+                ByteMatrix expected = Encoder.encode(text, ecc).getMatrix();
+                byte[] packed = generator.render(text, QrOutputFormat.MATRIX, profile).getBytes();
+
+                int n = expected.getWidth();
+                assertEquals(1, packed[0]);
+                assertEquals(n, packed[1] & 0xFF);
+                assertEquals(2 + (n * n + 7) / 8, packed.length);
+                byte[][] modules = new byte[n][n];
+                for (int bit = 0; bit < n * n; bit++) {
+                    if ((packed[2 + (bit >> 3)] & (0x80 >>> (bit & 7))) != 0) modules[bit / n][bit % n] = 1;
+                }
+                assertModules(expected, modules);
+            }
+        }
+    }
+
+    @Test
+    void svgRunsCoverExactlyTheDarkModules() throws Exception {
+        for (String text : new String[]{"ticket-42", "z".repeat(500)}) {
+            for (ErrorCorrectionLevel ecc : ErrorCorrectionLevel.values()) {
+                RenderProfile profile = new RenderProfile("test", ecc, 5, 3, 40);
+                ByteMatrix expected = Encoder.encode(text, ecc).getMatrix();
+                String svg = new String(generator.render(text, QrOutputFormat.SVG, profile).getBytes(), StandardCharsets.UTF_8);
+
+                int n = expected.getWidth();
+                int viewBox = n + 2 * profile.getQuietZone();
+                assertTrue(svg.contains("viewBox=\"0 0 " + viewBox + " " + viewBox + "\""));
+                assertTrue(svg.contains("width=\"" + viewBox * profile.getModuleSize() + "\""));
+
+                byte[][] modules = new byte[n][n];
+                boolean reachedRightEdge = false;
+                Matcher run = SVG_RUN.matcher(svg);
+                while (run.find()) {
+                    int x = Integer.parseInt(run.group(1)) - profile.getQuietZone();
+                    int y = Integer.parseInt(run.group(2)) - profile.getQuietZone();
+                    int length = Integer.parseInt(run.group(3));
+                    assertEquals(length, Integer.parseInt(run.group(4)));
+                    assertTrue(x >= 0 && y >= 0 && y < n && x + length <= n, "run outside the code: " + run.group());
+                    for (int i = x; i < x + length; i++) {
+                        assertEquals(0, modules[y][i], "overlapping runs at (" + i + "," + y + ")");
+                        modules[y][i] = 1;
+                    }
+                    // runs must stop at a light module or the edge, never be split
+                    assertTrue(x == 0 || expected.get(x - 1, y) != 1);
+                    reachedRightEdge |= x + length == n;
+                }
+                assertTrue(reachedRightEdge);
+                assertModules(expected, modules);
+            }
+        }
+    }
+
+    @Test
+    void stepsErrorCorrectionDownToFitMaxVersion() throws Exception {
+        // version 10 byte-mode capacity: L 271, M 213, Q 151, H 119 bytes
+        RenderProfile profile = new RenderProfile("test", ErrorCorrectionLevel.H, 4, 4, 10);
+        String text = "z".repeat(200);
+        assertTrue(Encoder.encode(text, ErrorCorrectionLevel.H).getVersion().getVersionNumber() > 10);
+
+        RenderedQr qr = generator.render(text, QrOutputFormat.PNG, profile);
+        // what /generate reports in X-QR-ECC, X-QR-Version and X-QR-Modules
+        assertEquals(ErrorCorrectionLevel.M, qr.getErrorCorrection());
+        assertEquals(Encoder.encode(text, ErrorCorrectionLevel.M).getVersion().getVersionNumber(), qr.getVersion());
+        assertTrue(qr.getVersion() <= 10);
+        assertEquals(17 + 4 * qr.getVersion(), qr.getModuleCount());
+        assertEquals("test", qr.getProfile());
+        assertEquals((qr.getModuleCount() + 2 * 4) * 4, ImageIO.read(new ByteArrayInputStream(qr.getBytes())).getWidth());
+
+        RenderedQr fits = generator.render("z".repeat(100), QrOutputFormat.PNG, profile);
+        assertEquals(ErrorCorrectionLevel.H, fits.getErrorCorrection());
+    }
+
+    @Test
+    void payloadTooLargeEvenAtLevelLIsRejected() {
+        RenderProfile profile = new RenderProfile("test", ErrorCorrectionLevel.H, 4, 4, 10);
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> generator.render("z".repeat(300), QrOutputFormat.PNG, profile));
+        assertEquals("payload does not fit QR version 10 (profile 'test')", ex.getMessage());
+        // too big for any version: same error rather than ZXing's WriterException
+        assertThrows(IllegalArgumentException.class,
+                () -> generator.render("z".repeat(3000), QrOutputFormat.PNG, new RenderProfile("test", ErrorCorrectionLevel.H, 4, 4, 40)));
+    }
+
+    private static void assertModules(ByteMatrix expected, byte[][] actual) {
+        int n = expected.getWidth();
+        for (int y = 0; y < n; y++) {
+            byte[] row = new byte[n];
+            for (int x = 0; x < n; x++) row[x] = (byte) (expected.get(x, y) == 1 ? 1 : 0);
+            assertArrayEquals(row, actual[y], "module row " + y);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.gausul.secureqr.service;
+
+import com.gausul.secureqr.verifier.QrReader;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.Encoder;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QrPngEncoderTest {
+
+    private final QrPngEncoder encoder = new QrPngEncoder();
+    private final QrReader qrReader = new QrReader();
+
+    @Test
+    void pixelsMatchTheModuleMatrix() throws Exception {
+        String[] texts = {"ticket-42", "x".repeat(300), "SQ1:" + "0123456789ABCDEF".repeat(40)};
+        for (String text : texts) {
+            for (ErrorCorrectionLevel ecc : ErrorCorrectionLevel.values()) {
+                ByteMatrix modules = Encoder.encode(text, ecc).getMatrix();
+                int n = modules.getWidth();
+                // {moduleSize, padding}: whole-module quiet zones, odd paddings (image width not a
+                // multiple of 8), no padding at all, and 1px modules
+                for (int[] layout : new int[][]{{4, 16}, {3, 13}, {2, 9}, {5, 0}, {1, 4}}) {
+                    int moduleSize = layout[0];
+                    int padding = layout[1];
+                    int imageSize = n * moduleSize + 2 * padding;
+                    byte[] png = encoder.encode(modules, moduleSize, padding, imageSize);
+                    assertPixels(modules, moduleSize, padding, imageSize, png);
+                    // ZXing needs a quiet zone, and more than 1px per module to binarise reliably
+                    if (padding >= 4 * moduleSize && moduleSize > 1) assertEquals(text, qrReader.readQr(png));
+                }
+            }
+        }
+    }
+
+    @Test
+    void imageSmallerThanTheCodeIsCropped() throws Exception {
+        ByteMatrix modules = Encoder.encode("ticket-42", ErrorCorrectionLevel.M).getMatrix();
+        int imageSize = modules.getWidth() * 3 - 5;
+        assertPixels(modules, 3, 0, imageSize, encoder.encode(modules, 3, 0, imageSize));
+    }
+
+    @Test
+    void pooledDeflaterGivesIdenticalOutput() throws Exception {
+        ByteMatrix small = Encoder.encode("ticket-42", ErrorCorrectionLevel.L).getMatrix();
+        ByteMatrix large = Encoder.encode("y".repeat(1000), ErrorCorrectionLevel.H).getMatrix();
+        byte[] first = encoder.encode(small, 4, 16, small.getWidth() * 4 + 32);
+        byte[] again = encoder.encode(small, 4, 16, small.getWidth() * 4 + 32);
+        encoder.encode(large, 6, 24, large.getWidth() * 6 + 48);
+        byte[] afterLarge = encoder.encode(small, 4, 16, small.getWidth() * 4 + 32);
+        assertArrayEquals(first, again);
+        assertArrayEquals(first, afterLarge);
+        assertEquals("ticket-42", qrReader.readQr(afterLarge));
+    }
+
+    // every pixel is dark exactly where its module is dark (modules scaled by moduleSize, offset by padding)
+    private static void assertPixels(ByteMatrix modules, int moduleSize, int padding, int imageSize, byte[] png)
+            throws Exception {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        assertEquals(imageSize, image.getWidth());
+        assertEquals(imageSize, image.getHeight());
+        int n = modules.getWidth();
+        for (int y = 0; y < imageSize; y++) {
+            for (int x = 0; x < imageSize; x++) {
+                int mx = Math.floorDiv(x - padding, moduleSize);
+                int my = Math.floorDiv(y - padding, moduleSize);
+                boolean dark = mx >= 0 && my >= 0 && mx < n && my < n && modules.get(mx, my) == 1;
+                int expected = dark ? 0xFF000000 : 0xFFFFFFFF;
+                if (image.getRGB(x, y) != expected) {
+                    throw new AssertionError("pixel (" + x + "," + y + ") of " + imageSize + "px image, module size "
+                            + moduleSize + ", padding " + padding + ": expected " + (dark ? "dark" : "light"));
+                }
+            }
+        }
+    }
+}
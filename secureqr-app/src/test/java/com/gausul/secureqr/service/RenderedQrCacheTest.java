@@ -0,0 +1,57 @@
+package com.gausul.secureqr.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RenderedQrCacheTest {
+
+    private final RenderedQrCache cache = new RenderedQrCache(null, 1 << 20);
+
+    @Test
+    void concurrentMissesRenderOnce() throws Exception {
+        AtomicInteger renders = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<RenderedQr>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return cache.get("\"etag\"", () -> {
+                        renders.incrementAndGet();
+                        Thread.sleep(50);
+                        return new RenderedQr(new byte[16], QrOutputFormat.PNG, "default", 1, 21, null);
+                    });
+                }));
+            }
+            start.countDown();
+            RenderedQr first = results.get(0).get();
+            for (Future<RenderedQr> result : results) assertSame(first, result.get());
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, renders.get());
+    }
+
+    @Test
+    void renderFailureIsRethrownAndNotCached() throws Exception {
+        IOException failure = new IOException("render failed");
+        assertSame(failure, assertThrows(IOException.class, () -> cache.get("\"etag\"", () -> {
+            throw failure;
+        })));
+        RenderedQr qr = new RenderedQr(new byte[16], QrOutputFormat.PNG, "default", 1, 21, null);
+        assertSame(qr, cache.get("\"etag\"", () -> qr));
+    }
+}
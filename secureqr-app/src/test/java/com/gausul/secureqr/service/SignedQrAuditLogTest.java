@@ -0,0 +1,143 @@
+package com.gausul.secureqr.service;
+
+import com.gausul.secureqr.model.SignedQrRecord;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SignedQrAuditLogTest {
+
+    @TempDir
+    Path journalDir;
+
+    private SignedQrAuditLog auditLog;
+
+    @AfterEach
+    void stop() {
+        if (auditLog != null) auditLog.stop();
+    }
+
+    @Test
+    void replaysLeftoverJournalWithInsertIgnore() throws Exception {
+        SignedQrRecord a = record("a");
+        SignedQrRecord b = record("b");
+        // a segment left by a crash: acknowledged rows never flushed, plus a torn last line
+        Path segment = journalDir.resolve("audit-0000000000000000001.journal");
+        Files.writeString(segment, journalLine(a) + journalLine(b) + "{\"id\":\"torn", StandardCharsets.UTF_8);
+
+        FakeWriter writer = new FakeWriter();
+        auditLog = start(writer);
+        assertEquals(Set.of(a.getId().toString(), b.getId().toString()), writer.replayed);
+        assertTrue(writer.inserted.isEmpty());
+        assertFalse(Files.exists(segment));
+    }
+
+    @Test
+    void retriesTransientFailuresAsInsertIgnore() throws Exception {
+        FakeWriter writer = new FakeWriter();
+        writer.transientFailures.set(2);
+        auditLog = start(writer);
+        SignedQrRecord rec = record("ok");
+        auditLog.record(rec);
+
+        awaitWritten(writer, 1);
+        assertTrue(writer.replayed.contains(rec.getId().toString()));
+    }
+
+    @Test
+    void deadLettersRejectedRowsWithoutBlockingTheQueue() throws Exception {
+        FakeWriter writer = new FakeWriter();
+        auditLog = start(writer);
+        SignedQrRecord good1 = record("good-1");
+        SignedQrRecord bad = record("bad");
+        SignedQrRecord good2 = record("good-2");
+        auditLog.record(good1);
+        auditLog.record(bad);
+        auditLog.record(good2);
+
+        awaitWritten(writer, 2);
+        SignedQrRecord later = record("later");
+        auditLog.record(later);
+        awaitWritten(writer, 3);
+
+        Path deadLetters = journalDir.resolve("audit-dead-letter.jsonl");
+        assertTrue(Files.exists(deadLetters));
+        String content = Files.readString(deadLetters);
+        assertTrue(content.contains(bad.getId().toString()));
+        assertFalse(content.contains(good1.getId().toString()));
+        assertFalse(writer.all().contains(bad.getId().toString()));
+    }
+
+    private SignedQrAuditLog start(FakeWriter writer) {
+        SignedQrAuditLog log = new SignedQrAuditLog(null, writer, new SimpleMeterRegistry(), true, 100, 50,
+                Duration.ofMillis(20), Duration.ofSeconds(1), journalDir.toString(), false, 1000);
+        log.start();
+        return log;
+    }
+
+    private static String journalLine(SignedQrRecord rec) {
+        return "{\"id\":\"" + rec.getId() + "\",\"leafKeyId\":null,\"payload\":\"" + rec.getPayload()
+                + "\",\"signature\":null,\"filePath\":null,\"createdAt\":" + rec.getCreatedAt().toEpochMilli() + "}\n";
+    }
+
+    private static SignedQrRecord record(String payload) {
+        SignedQrRecord rec = new SignedQrRecord();
+        rec.setPayload(payload);
+        return rec;
+    }
+
+    private static void awaitWritten(FakeWriter writer, int count) throws InterruptedException {
+        for (int i = 0; i < 200 && writer.all().size() < count; i++) Thread.sleep(25);
+        assertEquals(count, writer.all().size());
+    }
+
+    // in-memory table: rows with payload "bad" violate a constraint, transientFailures fail whole calls
+    static final class FakeWriter extends SignedQrAuditWriter {
+        final Set<String> inserted = ConcurrentHashMap.newKeySet();
+        final Set<String> replayed = ConcurrentHashMap.newKeySet();
+        final AtomicInteger transientFailures = new AtomicInteger();
+
+        @Override
+        public void writeBatch(List<SignedQrRecord> records) {
+            apply(records, inserted);
+        }
+
+        @Override
+        public void replayBatch(List<SignedQrRecord> records) {
+            apply(records, replayed);
+        }
+
+        private void apply(List<SignedQrRecord> records, Set<String> into) {
+            if (transientFailures.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                throw new TransientDataAccessResourceException("connection reset");
+            }
+            for (SignedQrRecord rec : records) {
+                if ("bad".equals(rec.getPayload())) throw new DataIntegrityViolationException("data too long");
+            }
+            for (SignedQrRecord rec : records) into.add(rec.getId().toString());
+        }
+
+        Set<String> all() {
+            Set<String> all = new HashSet<>(inserted);
+            all.addAll(replayed);
+            return all;
+        }
+    }
+}
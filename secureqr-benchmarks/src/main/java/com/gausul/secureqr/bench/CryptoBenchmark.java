@@ -0,0 +1,78 @@
+package com.gausul.secureqr.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CryptoService on its own: ECDSA sign / verify (random and RFC 6979 nonces) and the ECDH + AES-GCM
+ * envelope. Keys are the parsed-key-cache hits the request path sees after the first use.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CryptoBenchmark {
+
+    @Param({"64", "512", "2048"})
+    public int payloadBytes;
+
+    private Fixtures fixtures;
+    private byte[] data;
+    private byte[] signature;
+    private String plaintext;
+    private String recipientPub;
+    private String recipientPriv;
+    private String envelope;
+
+    @Setup
+    public void setup() throws Exception {
+        fixtures = new Fixtures();
+        plaintext = Fixtures.payload(payloadBytes);
+        data = plaintext.getBytes(StandardCharsets.UTF_8);
+        signature = fixtures.crypto.signEcdsa(data, fixtures.leafPriv);
+        recipientPub = Base64.getEncoder().encodeToString(fixtures.leafPub);
+        recipientPriv = Base64.getEncoder().encodeToString(fixtures.leafPriv);
+        envelope = fixtures.crypto.encryptForRecipientUsingEcdhAes(plaintext, recipientPub);
+    }
+
+    @Benchmark
+    public byte[] signEcdsa() throws Exception {
+        return fixtures.crypto.signEcdsa(data, fixtures.leafPriv);
+    }
+
+    @Benchmark
+    public byte[] signEcdsaDeterministic() throws Exception {
+        return fixtures.crypto.signEcdsaDeterministic(data, fixtures.leafPriv);
+    }
+
+    @Benchmark
+    public boolean verifyEcdsa() throws Exception {
+        return fixtures.crypto.verifyEcdsa(data, signature, fixtures.leafPub);
+    }
+
+    // ephemeral key pair + ECDH + AES-GCM per call
+    @Benchmark
+    public String encryptEcdhAes() throws Exception {
+        return fixtures.crypto.encryptForRecipientUsingEcdhAes(plaintext, recipientPub);
+    }
+
+    @Benchmark
+    public String decryptEcdhAes() throws Exception {
+        return fixtures.crypto.decryptWithPrivateKeyEcdhAes(envelope, recipientPriv);
+    }
+}
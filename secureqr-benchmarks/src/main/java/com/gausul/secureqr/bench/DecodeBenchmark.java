@@ -0,0 +1,55 @@
+package com.gausul.secureqr.bench;
+
+import com.gausul.secureqr.service.QrGenerator;
+import com.gausul.secureqr.service.QrOutputFormat;
+import com.gausul.secureqr.verifier.QrReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QrReader.readQr on PNGs rendered by QrGenerator. moduleSize sets the image resolution: at 25 px per
+ * module the larger QRs exceed secureqr.qr.target-decode-pixels and take the subsampled path.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DecodeBenchmark {
+
+    @Param({"64", "256", "1024"})
+    public int payloadBytes;
+
+    @Param({"L", "M", "Q", "H"})
+    public String ecc;
+
+    @Param({"4", "10", "25"})
+    public int moduleSize;
+
+    private final QrReader qrReader = new QrReader();
+    private byte[] png;
+
+    @Setup
+    public void setup() throws Exception {
+        String data = Fixtures.payload(payloadBytes);
+        png = new QrGenerator().render(data, QrOutputFormat.PNG, Fixtures.profile(ecc, moduleSize)).getBytes();
+        if (!data.equals(qrReader.readQr(png))) throw new IllegalStateException("rendered QR does not read back");
+    }
+
+    @Benchmark
+    public String readQr() throws Exception {
+        return qrReader.readQr(png);
+    }
+}
@@ -0,0 +1,51 @@
+package com.gausul.secureqr.bench;
+
+import com.gausul.secureqr.service.CryptoService;
+import com.gausul.secureqr.service.RenderProfile;
+import com.gausul.secureqr.service.TrustAnchorRegistry;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+
+import java.security.KeyPair;
+import java.util.Random;
+
+/**
+ * Keys and inputs shared by the benchmarks: a root and a leaf P-256 key pair with the root's chain
+ * signature over the leaf, as IssuerService would have produced them. Built in @Setup, never measured.
+ */
+final class Fixtures {
+
+    static final String ISSUER_ID = "ROOT-ISSUER-1";
+
+    // base64url-ish alphabet: realistic for tokens / ids and not trivially compressible
+    private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+
+    final CryptoService crypto = new CryptoService();
+    final byte[] rootPub;
+    final byte[] rootPriv;
+    final byte[] leafPub;
+    final byte[] leafPriv;
+    final byte[] issuerSignature;
+
+    Fixtures() throws Exception {
+        KeyPair root = crypto.generateEcdsaKeyPair();
+        KeyPair leaf = crypto.generateEcdsaKeyPair();
+        rootPub = root.getPublic().getEncoded();
+        rootPriv = root.getPrivate().getEncoded();
+        leafPub = leaf.getPublic().getEncoded();
+        leafPriv = leaf.getPrivate().getEncoded();
+        issuerSignature = crypto.signEcdsa(TrustAnchorRegistry.chainMessage(leafPub), rootPriv);
+    }
+
+    // ASCII, so payloadBytes is both the char and the UTF-8 byte count; same seed -> same payload
+    static String payload(int bytes) {
+        Random random = new Random(bytes);
+        char[] chars = new char[bytes];
+        for (int i = 0; i < bytes; i++) chars[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+        return new String(chars);
+    }
+
+    // quiet zone 4, any version: the level is what's measured, not the step-down
+    static RenderProfile profile(String ecc, int moduleSize) {
+        return new RenderProfile("bench", ErrorCorrectionLevel.valueOf(ecc), moduleSize, 4, 40);
+    }
+}
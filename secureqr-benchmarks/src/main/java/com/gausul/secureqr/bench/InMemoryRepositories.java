@@ -0,0 +1,96 @@
+package com.gausul.secureqr.bench;
+
+import com.gausul.secureqr.model.Issuer;
+import com.gausul.secureqr.model.LeafKey;
+import com.gausul.secureqr.model.SignedQrRecord;
+import com.gausul.secureqr.repository.IssuerRepository;
+import com.gausul.secureqr.repository.KeyChangeRepository;
+import com.gausul.secureqr.repository.LeafKeyRepository;
+import com.gausul.secureqr.repository.RevocationRepository;
+import com.gausul.secureqr.repository.SignedQrRecordRepository;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Map-backed stand-ins for the Spring Data repositories, so the services run without a database.
+ * Covers what SignedQrService and its collaborators call at startup and per request: save, findById,
+ * findAll and the derived lookups. The revocation and key-change logs stay empty (nothing is revoked
+ * while benchmarking); their saves are applied locally by the services and otherwise dropped.
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    static IssuerRepository issuers() {
+        Map<Object, Issuer> rows = new ConcurrentHashMap<>();
+        return repository(IssuerRepository.class, rows, Issuer::getId, Map.of(
+                "findFirstByOrderByCreatedAtAsc",
+                args -> rows.values().stream().min(Comparator.comparing(Issuer::getCreatedAt))));
+    }
+
+    static LeafKeyRepository leafKeys() {
+        Map<Object, LeafKey> rows = new ConcurrentHashMap<>();
+        return repository(LeafKeyRepository.class, rows, LeafKey::getId, Map.of(
+                "findByAlias",
+                args -> rows.values().stream().filter(leaf -> args[0].equals(leaf.getAlias())).findFirst(),
+                "findByCreatedAtGreaterThanEqualOrderByCreatedAtAsc",
+                args -> rows.values().stream()
+                        .filter(leaf -> !leaf.getCreatedAt().isBefore((Instant) args[0]))
+                        .sorted(Comparator.comparing(LeafKey::getCreatedAt))
+                        .toList()));
+    }
+
+    static SignedQrRecordRepository signedQrRecords() {
+        return repository(SignedQrRecordRepository.class, new ConcurrentHashMap<>(), SignedQrRecord::getId, Map.of());
+    }
+
+    static RevocationRepository revocations() {
+        return repository(RevocationRepository.class, null, null, Map.of(
+                "findRevocationsSince", args -> List.of()));
+    }
+
+    static KeyChangeRepository keyChanges() {
+        return repository(KeyChangeRepository.class, null, null, Map.of(
+                "findMaxId", args -> 0L,
+                "findChangesSince", args -> List.of(),
+                "deleteOlderThan", args -> 0));
+    }
+
+    // rows == null: an append-only log nobody reads back here; save returns the entity unchanged
+    @SuppressWarnings("unchecked")
+    private static <R, T> R repository(Class<R> type, Map<Object, T> rows, Function<T, Object> idOf,
+                                       Map<String, Function<Object[], Object>> queries) {
+        return (R) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> query = queries.get(method.getName());
+            if (query != null) return query.apply(args);
+            switch (method.getName()) {
+                case "save":
+                    if (rows != null) rows.put(idOf.apply((T) args[0]), (T) args[0]);
+                    return args[0];
+                case "findById":
+                    return Optional.ofNullable(rows != null ? rows.get(args[0]) : null);
+                case "findAll":
+                    return rows != null ? new ArrayList<>(rows.values()) : List.of();
+                case "count":
+                    return rows != null ? (long) rows.size() : 0L;
+                case "toString":
+                    return type.getSimpleName() + " (in memory)";
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            }
+        });
+    }
+}
@@ -0,0 +1,151 @@
+package com.gausul.secureqr.bench;
+
+import com.gausul.secureqr.config.RenderProperties;
+import com.gausul.secureqr.model.LeafKey;
+import com.gausul.secureqr.service.CompactQrCodec;
+import com.gausul.secureqr.service.CryptoService;
+import com.gausul.secureqr.service.IssuerService;
+import com.gausul.secureqr.service.KeyChangeLog;
+import com.gausul.secureqr.service.LeafKeyCache;
+import com.gausul.secureqr.service.LeafKeyDirectory;
+import com.gausul.secureqr.service.LeafKeyPool;
+import com.gausul.secureqr.service.QrGenerator;
+import com.gausul.secureqr.service.QrOutputFormat;
+import com.gausul.secureqr.service.RenderProfile;
+import com.gausul.secureqr.service.RenderedQrCache;
+import com.gausul.secureqr.service.RevocationRegistry;
+import com.gausul.secureqr.service.SignedQrAuditLog;
+import com.gausul.secureqr.service.SignedQrAuditWriter;
+import com.gausul.secureqr.service.SignedQrService;
+import com.gausul.secureqr.service.TrustAnchorRegistry;
+import com.gausul.secureqr.service.VerificationCache;
+import com.gausul.secureqr.verifier.QrPayloadEncoding;
+import com.gausul.secureqr.verifier.QrReader;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The signed-QR request paths end to end through the real SignedQrService, with in-memory repositories
+ * (InMemoryRepositories) in place of the database and the audit write left out:
+ *   generate:        issue (sign + QR text) -> PNG (what /generate does per request)
+ *   verify:          read PNG -> verifySignedQrText (a repeat scan: verdict from VerificationCache)
+ *   verifyCacheMiss: read PNG -> envelope, payload signature, memoised issuer chain, revocation lookups
+ * The services are wired by a bare application context, as in the app, and started like StartupRunner does.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PipelineBenchmark {
+
+    // largest size still fits the JSON envelope at level H without stepping down
+    @Param({"64", "256", "768"})
+    public int payloadBytes;
+
+    @Param({"M", "H"})
+    public String ecc;
+
+    @Param({"4", "10"})
+    public int moduleSize;
+
+    @Param({"json", "compact", "key-id"})
+    public String encoding;
+
+    private final QrReader qrReader = new QrReader();
+    private AnnotationConfigApplicationContext context;
+    private SignedQrService signedQrService;
+    private TrustAnchorRegistry trustAnchorRegistry;
+    private QrGenerator qrGenerator;
+    private LeafKey leaf;
+    private QrPayloadEncoding payloadEncoding;
+    private RenderProfile profile;
+    private String data;
+    private byte[] png;
+
+    @Setup
+    public void setup() throws Exception {
+        context = new AnnotationConfigApplicationContext();
+        // no background leaf generation competing with the measured threads
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("bench",
+                Map.of("secureqr.leaf-pool.enabled", "false")));
+        ConfigurableListableBeanFactory beans = context.getBeanFactory();
+        // @Value Durations ("PT5S") and sizes convert as in the app
+        beans.setConversionService(ApplicationConversionService.getSharedInstance());
+        beans.registerSingleton("issuerRepository", InMemoryRepositories.issuers());
+        beans.registerSingleton("leafKeyRepository", InMemoryRepositories.leafKeys());
+        beans.registerSingleton("signedQrRecordRepository", InMemoryRepositories.signedQrRecords());
+        beans.registerSingleton("revocationRepository", InMemoryRepositories.revocations());
+        beans.registerSingleton("keyChangeRepository", InMemoryRepositories.keyChanges());
+        beans.registerSingleton("meterRegistry", new SimpleMeterRegistry());
+        // never used: secureqr.audit.async is off, and the audit write is not part of what's measured
+        beans.registerSingleton("signedQrAuditWriter", new SignedQrAuditWriter());
+        context.register(CryptoService.class, QrGenerator.class, RenderProperties.class, CompactQrCodec.class,
+                KeyChangeLog.class, TrustAnchorRegistry.class, LeafKeyDirectory.class, LeafKeyCache.class,
+                LeafKeyPool.class, IssuerService.class, RenderedQrCache.class, VerificationCache.class,
+                RevocationRegistry.class, SignedQrAuditLog.class, SignedQrService.class);
+        context.refresh();
+
+        signedQrService = context.getBean(SignedQrService.class);
+        trustAnchorRegistry = context.getBean(TrustAnchorRegistry.class);
+        qrGenerator = context.getBean(QrGenerator.class);
+        IssuerService issuerService = context.getBean(IssuerService.class);
+
+        // what StartupRunner does, then one leaf to issue with
+        issuerService.initRootIssuerIfMissing("Root Issuer", Fixtures.ISSUER_ID);
+        trustAnchorRegistry.reload();
+        context.getBean(LeafKeyDirectory.class).refresh();
+        context.getBean(RevocationRegistry.class).refresh();
+        leaf = issuerService.issueLeaf(Fixtures.ISSUER_ID, "bench");
+
+        payloadEncoding = signedQrService.resolveEncoding(encoding);
+        profile = Fixtures.profile(ecc, moduleSize);
+        data = Fixtures.payload(payloadBytes);
+        png = generate();
+        if (!valid(verify()) || !valid(verifyCacheMiss())) throw new IllegalStateException("generated QR does not verify");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] generate() throws Exception {
+        String text = signedQrService.issue(leaf, data, payloadEncoding).getText();
+        return qrGenerator.render(text, QrOutputFormat.PNG, profile).getBytes();
+    }
+
+    @Benchmark
+    public Map<String, Object> verify() throws Exception {
+        return signedQrService.verifySignedQrText(qrReader.readQr(png));
+    }
+
+    @Benchmark
+    public Map<String, Object> verifyCacheMiss() throws Exception {
+        return signedQrService.verifySignedQrText(qrReader.readQr(png), trustAnchorRegistry::verifyChain);
+    }
+
+    private static boolean valid(Map<String, Object> result) {
+        return Boolean.TRUE.equals(result.get("payloadValid")) && Boolean.TRUE.equals(result.get("issuerValid"));
+    }
+}
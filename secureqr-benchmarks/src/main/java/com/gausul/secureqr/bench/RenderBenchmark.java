@@ -0,0 +1,79 @@
+package com.gausul.secureqr.bench;
+
+import com.gausul.secureqr.service.QrGenerator;
+import com.gausul.secureqr.service.QrOutputFormat;
+import com.gausul.secureqr.service.RenderProfile;
+import com.gausul.secureqr.service.RenderedQr;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QrGenerator: QR encoding plus PNG / SVG / matrix output. generateQrBytes always uses the default
+ * profile; the render* benchmarks sweep the error correction level and pixels per module (image resolution).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RenderBenchmark {
+
+    @Param({"64", "256", "1024"})
+    public int payloadBytes;
+
+    private final QrGenerator qrGenerator = new QrGenerator();
+    private String data;
+
+    @State(Scope.Benchmark)
+    public static class Profile {
+        @Param({"L", "M", "Q", "H"})
+        public String ecc;
+
+        @Param({"4", "10", "25"})
+        public int moduleSize;
+
+        RenderProfile profile;
+
+        @Setup
+        public void setup() {
+            profile = Fixtures.profile(ecc, moduleSize);
+        }
+    }
+
+    @Setup
+    public void setup() {
+        data = Fixtures.payload(payloadBytes);
+    }
+
+    @Benchmark
+    public byte[] generateQrBytes() throws Exception {
+        return qrGenerator.generateQrBytes(data);
+    }
+
+    @Benchmark
+    public RenderedQr renderPng(Profile p) throws Exception {
+        return qrGenerator.render(data, QrOutputFormat.PNG, p.profile);
+    }
+
+    @Benchmark
+    public RenderedQr renderSvg(Profile p) throws Exception {
+        return qrGenerator.render(data, QrOutputFormat.SVG, p.profile);
+    }
+
+    @Benchmark
+    public RenderedQr renderMatrix(Profile p) throws Exception {
+        return qrGenerator.render(data, QrOutputFormat.MATRIX, p.profile);
+    }
+}
@@ -0,0 +1,38 @@
+package com.gausul.secureqr.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of target/benchmarks.jar: the usual JMH command line, with the GC profiler always on so
+ * every run reports allocation rate (gc.alloc.rate.norm = bytes per operation) next to throughput.
+ * <pre>
+ *   java -jar secureqr-benchmarks/target/benchmarks.jar                          (everything)
+ *   java -jar secureqr-benchmarks/target/benchmarks.jar Pipeline -p encoding=compact
+ *   java -jar secureqr-benchmarks/target/benchmarks.jar Crypto.sign -rf json -rff crypto.json
+ * </pre>
+ */
+public final class SecureQrBenchmarks {
+
+    private SecureQrBenchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp()) {
+            commandLine.showHelp();
+            return;
+        }
+        Runner runner = new Runner(new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .build());
+        if (commandLine.shouldList()) {
+            runner.list();
+            return;
+        }
+        runner.run();
+    }
+}
@@ -0,0 +1,77 @@
+package com.gausul.secureqr.bench;
+
+import com.gausul.secureqr.service.CompactQrCodec;
+import com.gausul.secureqr.service.SignedQrService;
+import com.gausul.secureqr.verifier.SignedQrDecoder;
+import com.gausul.secureqr.verifier.SignedQrEnvelope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QR text encoding without the signature or the image: the Jackson JSON envelope written by
+ * SignedQrService, the CBOR + Base45 compact envelope, and parsing both back (SignedQrDecoder).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SerializationBenchmark {
+
+    @Param({"64", "512", "2048"})
+    public int payloadBytes;
+
+    // only encodeJson is used, which needs no injected collaborators
+    private final SignedQrService signedQrService = new SignedQrService();
+    private Fixtures fixtures;
+    private CompactQrCodec compactQrCodec;
+    private SignedQrDecoder decoder;
+    private String data;
+    private byte[] signature;
+    private String jsonText;
+    private String compactText;
+
+    @Setup
+    public void setup() throws Exception {
+        fixtures = new Fixtures();
+        compactQrCodec = new CompactQrCodec(fixtures.crypto);
+        decoder = new SignedQrDecoder(fixtures.crypto::decompressEcPublicKey);
+        data = Fixtures.payload(payloadBytes);
+        signature = fixtures.crypto.signEcdsa(data.getBytes(StandardCharsets.UTF_8), fixtures.leafPriv);
+        jsonText = encodeJson();
+        compactText = encodeCompact();
+    }
+
+    @Benchmark
+    public String encodeJson() throws Exception {
+        return signedQrService.encodeJson(data, signature, fixtures.leafPub, Fixtures.ISSUER_ID, fixtures.issuerSignature);
+    }
+
+    @Benchmark
+    public String encodeCompact() throws Exception {
+        return compactQrCodec.encode(data, signature, fixtures.leafPub, Fixtures.ISSUER_ID, fixtures.issuerSignature);
+    }
+
+    @Benchmark
+    public SignedQrEnvelope decodeJson() throws Exception {
+        return decoder.decode(jsonText);
+    }
+
+    @Benchmark
+    public SignedQrEnvelope decodeCompact() throws Exception {
+        return decoder.decode(compactText);
+    }
+}
@@ -0,0 +1,60 @@
+package com.gausul.secureqr.verifier;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Base45 (RFC 9285). Output only uses the QR alphanumeric alphabet, so ZXing encodes it in
+ * alphanumeric mode (5.5 bits per character) instead of byte mode.
+ */
+public final class Base45 {
+
+    private static final String ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ $%*+-./:";
+    private static final int[] DECODE = new int[128];
+
+    static {
+        java.util.Arrays.fill(DECODE, -1);
+        for (int i = 0; i < ALPHABET.length(); i++) DECODE[ALPHABET.charAt(i)] = i;
+    }
+
+    private Base45() {
+    }
+
+    public static String encode(byte[] data) {
+        StringBuilder out = new StringBuilder((data.length / 2) * 3 + 2);
+        int i = 0;
+        for (; i + 1 < data.length; i += 2) {
+            int n = ((data[i] & 0xFF) << 8) | (data[i + 1] & 0xFF);
+            out.append(ALPHABET.charAt(n % 45)).append(ALPHABET.charAt(n / 45 % 45)).append(ALPHABET.charAt(n / 2025));
+        }
+        if (i < data.length) {
+            int n = data[i] & 0xFF;
+            out.append(ALPHABET.charAt(n % 45)).append(ALPHABET.charAt(n / 45));
+        }
+        return out.toString();
+    }
+
+    public static byte[] decode(CharSequence text) {
+        int len = text.length();
+        if (len % 3 == 1) throw new IllegalArgumentException("invalid Base45 length");
+        ByteArrayOutputStream out = new ByteArrayOutputStream(len / 3 * 2 + 1);
+        for (int i = 0; i < len; i += 3) {
+            int c = value(text.charAt(i)) + value(text.charAt(i + 1)) * 45;
+            if (i + 2 < len) {
+                int n = c + value(text.charAt(i + 2)) * 2025;
+                if (n > 0xFFFF) throw new IllegalArgumentException("invalid Base45 triplet");
+                out.write(n >> 8);
+                out.write(n & 0xFF);
+            } else {
+                if (c > 0xFF) throw new IllegalArgumentException("invalid Base45 pair");
+                out.write(c);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static int value(char c) {
+        int v = c < 128 ? DECODE[c] : -1;
+        if (v < 0) throw new IllegalArgumentException("invalid Base45 character: " + c);
+        return v;
+    }
+}
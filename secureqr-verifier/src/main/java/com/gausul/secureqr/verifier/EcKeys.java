@@ -0,0 +1,112 @@
+package com.gausul.secureqr.verifier;
+
+import java.math.BigInteger;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECFieldFp;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.util.Arrays;
+
+/**
+ * P-256 encoding helpers for compact QR envelopes:
+ * SEC1 compressed points (33 bytes instead of a 91-byte X.509 key) and
+ * DER <-> raw r||s ECDSA signatures (64 bytes instead of up to 72).
+ */
+public final class EcKeys {
+
+    public static final int FIELD_BYTES = 32;
+    public static final ECParameterSpec P256 = p256();
+
+    private EcKeys() {
+    }
+
+    // 0x02 / 0x03 (parity of y) || x
+    public static byte[] compress(ECPublicKey key) {
+        ECPoint w = key.getW();
+        byte[] out = new byte[1 + FIELD_BYTES];
+        out[0] = (byte) (w.getAffineY().testBit(0) ? 0x03 : 0x02);
+        writeFixed(w.getAffineX(), out, 1);
+        return out;
+    }
+
+    // y = sqrt(x^3 + ax + b) mod p; P-256 has p = 3 mod 4, so sqrt(v) = v^((p+1)/4)
+    public static ECPublicKeySpec decompress(byte[] compressed) {
+        if (compressed.length != 1 + FIELD_BYTES || (compressed[0] != 0x02 && compressed[0] != 0x03)) {
+            throw new IllegalArgumentException("not a compressed P-256 point");
+        }
+        BigInteger p = ((ECFieldFp) P256.getCurve().getField()).getP();
+        BigInteger x = new BigInteger(1, Arrays.copyOfRange(compressed, 1, compressed.length));
+        BigInteger rhs = x.pow(3).add(P256.getCurve().getA().multiply(x)).add(P256.getCurve().getB()).mod(p);
+        BigInteger y = rhs.modPow(p.add(BigInteger.ONE).shiftRight(2), p);
+        if (!y.multiply(y).mod(p).equals(rhs)) throw new IllegalArgumentException("point not on P-256");
+        if (y.testBit(0) != (compressed[0] == 0x03)) y = p.subtract(y);
+        return new ECPublicKeySpec(new ECPoint(x, y), P256);
+    }
+
+    // DER SEQUENCE { INTEGER r, INTEGER s } -> r || s (32 bytes each)
+    public static byte[] derToRaw(byte[] der) {
+        int pos = 0;
+        if (der[pos++] != 0x30) throw new IllegalArgumentException("not a DER ECDSA signature");
+        if ((der[pos++] & 0x80) != 0) pos++; // 0x81 nn long form (never needed for P-256, tolerated)
+        byte[] raw = new byte[2 * FIELD_BYTES];
+        for (int i = 0; i < 2; i++) {
+            if (der[pos++] != 0x02) throw new IllegalArgumentException("not a DER ECDSA signature");
+            int len = der[pos++];
+            int start = pos;
+            while (len > FIELD_BYTES && der[start] == 0) { // sign padding
+                start++;
+                len--;
+            }
+            if (len > FIELD_BYTES) throw new IllegalArgumentException("signature component too long");
+            System.arraycopy(der, start, raw, (i + 1) * FIELD_BYTES - len, len);
+            pos = start + len;
+        }
+        return raw;
+    }
+
+    // r || s -> minimal DER, as produced by SHA256withECDSA
+    public static byte[] rawToDer(byte[] raw) {
+        if (raw.length != 2 * FIELD_BYTES) throw new IllegalArgumentException("raw signature must be 64 bytes");
+        byte[] r = derInteger(raw, 0);
+        byte[] s = derInteger(raw, FIELD_BYTES);
+        byte[] der = new byte[2 + r.length + s.length];
+        der[0] = 0x30;
+        der[1] = (byte) (r.length + s.length);
+        System.arraycopy(r, 0, der, 2, r.length);
+        System.arraycopy(s, 0, der, 2 + r.length, s.length);
+        return der;
+    }
+
+    private static byte[] derInteger(byte[] raw, int off) {
+        int start = off;
+        int end = off + FIELD_BYTES;
+        while (start < end - 1 && raw[start] == 0) start++;
+        boolean pad = (raw[start] & 0x80) != 0;
+        int len = end - start + (pad ? 1 : 0);
+        byte[] out = new byte[2 + len];
+        out[0] = 0x02;
+        out[1] = (byte) len;
+        System.arraycopy(raw, start, out, pad ? 3 : 2, end - start);
+        return out;
+    }
+
+    private static void writeFixed(BigInteger v, byte[] out, int off) {
+        byte[] b = v.toByteArray(); // may carry a leading sign byte
+        int len = Math.min(b.length, FIELD_BYTES);
+        System.arraycopy(b, b.length - len, out, off + FIELD_BYTES - len, len);
+    }
+
+    private static ECParameterSpec p256() {
+        try {
+            AlgorithmParameters params = AlgorithmParameters.getInstance("EC");
+            params.init(new ECGenParameterSpec("secp256r1"));
+            return params.getParameterSpec(ECParameterSpec.class);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("P-256 not available", ex);
+        }
+    }
+}
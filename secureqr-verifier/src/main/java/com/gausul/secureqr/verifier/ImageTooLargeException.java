@@ -0,0 +1,12 @@
+package com.gausul.secureqr.verifier;
+
+/**
+ * Thrown by QrReader when an image exceeds the configured byte or pixel limits.
+ * Raised while streaming / from the image header, before the whole image is held in memory.
+ */
+public class ImageTooLargeException extends IllegalArgumentException {
+
+    public ImageTooLargeException(String message) {
+        super(message);
+    }
+}
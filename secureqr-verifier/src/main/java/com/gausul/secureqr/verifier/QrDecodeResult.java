@@ -0,0 +1,62 @@
+package com.gausul.secureqr.verifier;
+
+/**
+ * Decoded QR text plus how QrReader got there: the tier that succeeded, the source subsampling
+ * factor of the pass, whether it was a cropped region-of-interest pass, and the largest decoded
+ * raster (bytes) held during the decode.
+ */
+public final class QrDecodeResult {
+
+    /**
+     * Decode passes, cheapest first. Each tier only runs if every earlier one failed.
+     */
+    public enum Tier {
+        FAST,        // GlobalHistogramBinarizer, QR only, no TRY_HARDER (clean server-rendered codes)
+        HYBRID,      // HybridBinarizer (uneven lighting, photos)
+        TRY_HARDER,  // HybridBinarizer + TRY_HARDER
+        ROTATED,     // rotated 90 degrees + TRY_HARDER
+        INVERTED     // light-on-dark codes + TRY_HARDER
+    }
+
+    private final String text;
+    private final Tier tier;
+    private final int subsampling;
+    private final boolean regionOfInterest;
+    private final long peakImageBytes;
+
+    public QrDecodeResult(String text, Tier tier) {
+        this(text, tier, 1, false, 0);
+    }
+
+    public QrDecodeResult(String text, Tier tier, int subsampling, boolean regionOfInterest, long peakImageBytes) {
+        this.text = text;
+        this.tier = tier;
+        this.subsampling = subsampling;
+        this.regionOfInterest = regionOfInterest;
+        this.peakImageBytes = peakImageBytes;
+    }
+
+    public QrDecodeResult withImageInfo(int subsampling, boolean regionOfInterest, long peakImageBytes) {
+        return new QrDecodeResult(text, tier, subsampling, regionOfInterest, peakImageBytes);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public Tier getTier() {
+        return tier;
+    }
+
+    public int getSubsampling() {
+        return subsampling;
+    }
+
+    public boolean isRegionOfInterest() {
+        return regionOfInterest;
+    }
+
+    public long getPeakImageBytes() {
+        return peakImageBytes;
+    }
+}
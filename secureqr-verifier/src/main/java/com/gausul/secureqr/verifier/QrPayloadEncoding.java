@@ -0,0 +1,24 @@
+package com.gausul.secureqr.verifier;
+
+/**
+ * How the signed envelope is written into the QR.
+ * JSON: {"payload","signature","pub","issuerId","issuerSignature"} with Base64 keys and DER signatures.
+ * COMPACT: CBOR envelope in Base45 (see CompactQrCodec), roughly half the modules of the JSON form.
+ * KEY_ID: compact envelope carrying only the leaf key id and payload signature; the verifier resolves
+ * the leaf key and its (pre-validated) chain from LeafKeyDirectory.
+ */
+public enum QrPayloadEncoding {
+
+    JSON,
+    COMPACT,
+    KEY_ID;
+
+    // json | compact | key-id (case-insensitive)
+    public static QrPayloadEncoding fromName(String name) {
+        String normalized = name.trim().replace('-', '_');
+        for (QrPayloadEncoding encoding : values()) {
+            if (encoding.name().equalsIgnoreCase(normalized)) return encoding;
+        }
+        throw new IllegalArgumentException("unknown encoding: " + name + " (json, compact, key-id)");
+    }
+}
@@ -0,0 +1,402 @@
+package com.gausul.secureqr.verifier;
+
+import com.gausul.secureqr.verifier.QrDecodeResult.Tier;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.PlanarYUVLuminanceSource;
+import com.google.zxing.ReaderException;
+import com.google.zxing.ResultPoint;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.GlobalHistogramBinarizer;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+import com.google.zxing.qrcode.detector.Detector;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decodes QR codes from images and raw camera frames within fixed byte / pixel budgets.
+ * Plain class so it can run outside Spring; the app registers it as a bean in QrReaderConfig.
+ */
+public class QrReader {
+
+    /**
+     * Raw frame layouts accepted by decodeFrame.
+     * GRAY and YUV420 (NV21 / NV12 / I420) both start with a full-resolution Y plane, which is all we read.
+     */
+    public enum FrameFormat {
+        GRAY, YUV420, RGB
+    }
+
+    // we only ever issue QR codes, so don't let ZXing try the other formats
+    private static final Map<DecodeHintType, Object> QR_ONLY = hints(false);
+    private static final Map<DecodeHintType, Object> QR_ONLY_TRY_HARDER = hints(true);
+
+    // upper bounds for a single image: encoded size and decoded pixel count (width * height)
+    private final long maxImageBytes;
+    private final long maxImagePixels;
+    // images above this are first decoded subsampled down to about this many pixels
+    private final long targetDecodePixels;
+    // no decode pass ever materialises more pixels than this (bounds heap per request)
+    private final long maxDecodePixels;
+    // raw frames read from a stream: the bytes decodeFrame needs (width * height, x3 for RGB)
+    private final long maxFrameBytes;
+
+    public QrReader() {
+        this(10L * 1024 * 1024, 40_000_000L, 2_000_000L, 4_000_000L);
+    }
+
+    public QrReader(long maxImageBytes, long maxImagePixels, long targetDecodePixels, long maxDecodePixels) {
+        this(maxImageBytes, maxImagePixels, targetDecodePixels, maxDecodePixels, 32L * 1024 * 1024);
+    }
+
+    public QrReader(long maxImageBytes, long maxImagePixels, long targetDecodePixels, long maxDecodePixels,
+                    long maxFrameBytes) {
+        this.maxImageBytes = maxImageBytes;
+        this.maxImagePixels = maxImagePixels;
+        this.targetDecodePixels = targetDecodePixels;
+        this.maxDecodePixels = Math.max(maxDecodePixels, targetDecodePixels);
+        this.maxFrameBytes = maxFrameBytes;
+    }
+
+    public long getMaxImageBytes() {
+        return maxImageBytes;
+    }
+
+    public long getMaxFrameBytes() {
+        return maxFrameBytes;
+    }
+
+    public String readQr(String filePath) throws Exception {
+        return decodeQr(filePath).getText();
+    }
+
+    public String readQr(byte[] imageBytes) throws Exception {
+        return decodeQr(imageBytes).getText();
+    }
+
+    public String readQr(ByteBuffer imageBuffer) throws Exception {
+        return decodeQr(imageBuffer).getText();
+    }
+
+    public String readQr(InputStream imageStream) throws Exception {
+        return decodeQr(imageStream).getText();
+    }
+
+    // --- same entry points, also reporting which decode tier succeeded ---
+
+    public QrDecodeResult decodeQr(String filePath) throws Exception {
+        try (InputStream in = Files.newInputStream(Path.of(filePath))) {
+            return decodeQr(in);
+        }
+    }
+
+    public QrDecodeResult decodeQr(byte[] imageBytes) throws Exception {
+        return decodeQr(new ByteArrayInputStream(imageBytes));
+    }
+
+    // reads the buffer's remaining bytes without copying them or moving its position
+    public QrDecodeResult decodeQr(ByteBuffer imageBuffer) throws Exception {
+        return decodeQr(new ByteBufferInputStream(imageBuffer.duplicate()));
+    }
+
+    // decodes straight from the stream (no temp file); fails fast once maxImageBytes is exceeded
+    public QrDecodeResult decodeQr(InputStream imageStream) throws Exception {
+        return decodeImage(new LimitedInputStream(imageStream, maxImageBytes));
+    }
+
+    /**
+     * Decodes a raw camera frame without any image codec or BufferedImage.
+     * Only the crop rectangle is looked at; pass the full frame size to decode everything.
+     * RGB frames (packed 8-bit R,G,B) are reduced to luminance for the crop rectangle only.
+     */
+    public QrDecodeResult decodeFrame(byte[] frame, FrameFormat format, int width, int height,
+                                      int left, int top, int cropWidth, int cropHeight) throws NotFoundException {
+        int frameBytes = checkFrame(format, width, height, left, top, cropWidth, cropHeight);
+        if (frame.length < frameBytes) {
+            throw new IllegalArgumentException("frame has " + frame.length + " bytes, expected at least " + frameBytes);
+        }
+
+        LuminanceSource source;
+        if (format == FrameFormat.RGB) {
+            source = new PlanarYUVLuminanceSource(rgbToLuminance(frame, width, left, top, cropWidth, cropHeight),
+                    cropWidth, cropHeight, 0, 0, cropWidth, cropHeight, false);
+        } else {
+            source = new PlanarYUVLuminanceSource(frame, width, height, left, top, cropWidth, cropHeight, false);
+        }
+        return decode(source).withImageInfo(1, false, (long) cropWidth * cropHeight);
+    }
+
+    /**
+     * Same as above, reading the frame from a request body: the size is checked against the frame
+     * dimensions and maxFrameBytes before anything is read, and only those bytes are ever buffered
+     * (trailing bytes, e.g. the chroma planes of a YUV420 frame, are left unread).
+     */
+    public QrDecodeResult decodeFrame(InputStream frameStream, FrameFormat format, int width, int height,
+                                      int left, int top, int cropWidth, int cropHeight) throws IOException, NotFoundException {
+        int frameBytes = checkFrame(format, width, height, left, top, cropWidth, cropHeight);
+        byte[] frame = frameStream.readNBytes(frameBytes);
+        return decodeFrame(frame, format, width, height, left, top, cropWidth, cropHeight);
+    }
+
+    // validates dimensions and crop; returns the bytes decodeFrame reads from the frame
+    private int checkFrame(FrameFormat format, int width, int height, int left, int top, int cropWidth, int cropHeight) {
+        if (width <= 0 || height <= 0) throw new IllegalArgumentException("width and height must be positive");
+        if ((long) width * height > maxImagePixels) {
+            throw new ImageTooLargeException("frame too large: " + width + "x" + height + " exceeds " + maxImagePixels + " pixels");
+        }
+        if (left < 0 || top < 0 || cropWidth <= 0 || cropHeight <= 0
+                || left + cropWidth > width || top + cropHeight > height) {
+            throw new IllegalArgumentException("crop rectangle outside the frame");
+        }
+        long frameBytes = (long) width * height * (format == FrameFormat.RGB ? 3 : 1);
+        if (frameBytes > maxFrameBytes) {
+            throw new ImageTooLargeException("frame too large: " + frameBytes + " bytes exceeds " + maxFrameBytes);
+        }
+        return (int) frameBytes;
+    }
+
+    // same weighting as ZXing's RGBLuminanceSource: (R + 2G + B) / 4
+    private static byte[] rgbToLuminance(byte[] rgb, int width, int left, int top, int cropWidth, int cropHeight) {
+        byte[] luminance = new byte[cropWidth * cropHeight];
+        int out = 0;
+        for (int y = top; y < top + cropHeight; y++) {
+            int in = (y * width + left) * 3;
+            for (int x = 0; x < cropWidth; x++, in += 3) {
+                int r = rgb[in] & 0xFF;
+                int g = rgb[in + 1] & 0xFF;
+                int b = rgb[in + 2] & 0xFF;
+                luminance[out++] = (byte) ((r + 2 * g + b) >> 2);
+            }
+        }
+        return luminance;
+    }
+
+    /**
+     * Tiered decode: cheap global-histogram pass first, escalating to HybridBinarizer, TRY_HARDER,
+     * rotation and inversion only when the previous pass found nothing.
+     */
+    public QrDecodeResult decode(LuminanceSource source) throws NotFoundException {
+        String text = tryDecode(new BinaryBitmap(new GlobalHistogramBinarizer(source)), QR_ONLY);
+        if (text != null) return new QrDecodeResult(text, Tier.FAST);
+
+        // one hybrid bitmap for both passes: BinaryBitmap caches the black matrix
+        BinaryBitmap hybrid = new BinaryBitmap(new HybridBinarizer(source));
+        text = tryDecode(hybrid, QR_ONLY);
+        if (text != null) return new QrDecodeResult(text, Tier.HYBRID);
+
+        text = tryDecode(hybrid, QR_ONLY_TRY_HARDER);
+        if (text != null) return new QrDecodeResult(text, Tier.TRY_HARDER);
+
+        if (source.isRotateSupported()) {
+            text = tryDecode(new BinaryBitmap(new HybridBinarizer(source.rotateCounterClockwise())), QR_ONLY_TRY_HARDER);
+            if (text != null) return new QrDecodeResult(text, Tier.ROTATED);
+        }
+
+        text = tryDecode(new BinaryBitmap(new HybridBinarizer(source.invert())), QR_ONLY_TRY_HARDER);
+        if (text != null) return new QrDecodeResult(text, Tier.INVERTED);
+
+        throw NotFoundException.getNotFoundInstance();
+    }
+
+    // null when this pass finds no (valid) QR code
+    private static String tryDecode(BinaryBitmap bitmap, Map<DecodeHintType, Object> hints) {
+        try {
+            return new QRCodeReader().decode(bitmap, hints).getText();
+        } catch (ReaderException ex) {
+            return null;
+        }
+    }
+
+    private static Map<DecodeHintType, Object> hints(boolean tryHarder) {
+        Map<DecodeHintType, Object> hints = new EnumMap<>(DecodeHintType.class);
+        hints.put(DecodeHintType.POSSIBLE_FORMATS, List.of(BarcodeFormat.QR_CODE));
+        if (tryHarder) hints.put(DecodeHintType.TRY_HARDER, Boolean.TRUE);
+        return hints;
+    }
+
+    /**
+     * Reads the header first and rejects the image before any raster is allocated if it is too big.
+     * Large images (camera uploads) are decoded in two steps so no pass holds more than maxDecodePixels:
+     *  1. a subsampled read (ImageReadParam source subsampling) decoded with the usual tiers;
+     *  2. if that fails but finder patterns are visible, only the region around them is re-read at
+     *     the finest resolution the budget allows and decoded again.
+     * MemoryCacheImageInputStream keeps ImageIO from spilling the stream to a cache file, and lets
+     * the second pass re-read the encoded bytes.
+     */
+    private QrDecodeResult decodeImage(InputStream in) throws IOException, NotFoundException {
+        try (ImageInputStream iis = new MemoryCacheImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) throw new IllegalArgumentException("unsupported image format");
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, false, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxImagePixels) {
+                    throw new ImageTooLargeException("image too large: " + width + "x" + height
+                            + " exceeds " + maxImagePixels + " pixels");
+                }
+
+                int subsampling = subsamplingFor(width, height, targetDecodePixels);
+                BufferedImage image = readRegion(reader, null, subsampling);
+                long peakBytes = rasterBytes(image);
+                LuminanceSource source = new BufferedImageLuminanceSource(image);
+                try {
+                    return decode(source).withImageInfo(subsampling, false, peakBytes);
+                } catch (NotFoundException ex) {
+                    if (subsampling == 1) throw ex;
+                }
+
+                // 2) crop around the finder patterns found in the low-res pass, in full-res coordinates
+                Rectangle region = locateCode(source, subsampling, width, height);
+                int regionSubsampling = region == null ? subsampling
+                        : subsamplingFor(region.width, region.height, maxDecodePixels);
+                if (regionSubsampling >= subsampling) throw NotFoundException.getNotFoundInstance();
+
+                BufferedImage crop = readRegion(reader, region, regionSubsampling);
+                peakBytes = Math.max(peakBytes, rasterBytes(crop));
+                return decode(new BufferedImageLuminanceSource(crop)).withImageInfo(regionSubsampling, true, peakBytes);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage readRegion(ImageReader reader, Rectangle region, int subsampling) throws IOException {
+        ImageReadParam param = reader.getDefaultReadParam();
+        if (region != null) param.setSourceRegion(region);
+        if (subsampling > 1) param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        return reader.read(0, param);
+    }
+
+    // smallest integer subsampling factor that brings width x height down to at most maxPixels
+    private static int subsamplingFor(int width, int height, long maxPixels) {
+        int s = Math.max(1, (int) Math.ceil(Math.sqrt((double) width * height / maxPixels)));
+        while ((long) ceilDiv(width, s) * ceilDiv(height, s) > maxPixels) s++;
+        return s;
+    }
+
+    private static int ceilDiv(int a, int b) {
+        return (a + b - 1) / b;
+    }
+
+    // Bounding box of the QR finder / alignment patterns, padded and scaled up to full resolution;
+    // null when no finder patterns are visible at all.
+    private static Rectangle locateCode(LuminanceSource source, int subsampling, int width, int height) {
+        ResultPoint[] points;
+        try {
+            BitMatrix bits = new BinaryBitmap(new HybridBinarizer(source)).getBlackMatrix();
+            points = new Detector(bits).detect(QR_ONLY_TRY_HARDER).getPoints();
+        } catch (ReaderException ex) {
+            return null;
+        }
+
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, maxX = 0, maxY = 0;
+        for (ResultPoint p : points) {
+            minX = Math.min(minX, p.getX());
+            minY = Math.min(minY, p.getY());
+            maxX = Math.max(maxX, p.getX());
+            maxY = Math.max(maxY, p.getY());
+        }
+        // pattern centres sit a few modules inside the symbol; pad generously for the quiet zone
+        float pad = Math.max(maxX - minX, maxY - minY) * 0.25f + 2;
+        int left = Math.max(0, (int) ((minX - pad) * subsampling));
+        int top = Math.max(0, (int) ((minY - pad) * subsampling));
+        int right = Math.min(width, (int) Math.ceil((maxX + pad) * subsampling));
+        int bottom = Math.min(height, (int) Math.ceil((maxY + pad) * subsampling));
+        if (right <= left || bottom <= top) return null;
+        return new Rectangle(left, top, right - left, bottom - top);
+    }
+
+    private static long rasterBytes(BufferedImage image) {
+        DataBuffer buffer = image.getRaster().getDataBuffer();
+        return (long) buffer.getSize() * buffer.getNumBanks() * DataBuffer.getDataTypeSize(buffer.getDataType()) / 8;
+    }
+
+    // Counts bytes as they are read and aborts once the limit is crossed.
+    private static final class LimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private long count;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) advance(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) advance(n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            advance(skipped);
+            return skipped;
+        }
+
+        private void advance(long n) {
+            count += n;
+            if (count > limit) throw new ImageTooLargeException("image exceeds " + limit + " bytes");
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) return -1;
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.gausul.secureqr.verifier;
+
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * Fingerprints identifying revoked material, shared by RevocationRegistry and trust bundles:
+ * SHA-256 of a kind byte ('L' leaf, 'Q' QR) followed by the leaf X.509 key or the raw r||s payload
+ * signature. Raw r||s because DER can encode the same signature more than one way; JSON, compact and
+ * key-id QRs therefore all map to the same fingerprint. s is taken as min(s, n - s): (r, n - s) verifies
+ * just like (r, s), so without that a revoked QR could be re-issued by anyone with its signature flipped.
+ */
+public final class RevocationFingerprint {
+
+    public static final int LENGTH = 32;
+
+    private RevocationFingerprint() {
+    }
+
+    // md: a SHA-256 digest (reset on return)
+    public static byte[] leaf(MessageDigest md, byte[] leafPublicKeyX509) {
+        md.update((byte) 'L');
+        return md.digest(leafPublicKeyX509);
+    }
+
+    public static byte[] qr(MessageDigest md, byte[] signatureDer) {
+        md.update((byte) 'Q');
+        return md.digest(normalizeSignature(signatureDer));
+    }
+
+    private static final BigInteger N = EcKeys.P256.getOrder();
+    private static final BigInteger HALF_N = N.shiftRight(1);
+
+    // raw r || low-s
+    static byte[] normalizeSignature(byte[] signatureDer) {
+        byte[] raw;
+        try {
+            raw = EcKeys.derToRaw(signatureDer);
+        } catch (RuntimeException ex) {
+            return signatureDer; // malformed: won't verify anyway, and can't match a revoked one
+        }
+        BigInteger s = new BigInteger(1, Arrays.copyOfRange(raw, EcKeys.FIELD_BYTES, raw.length));
+        if (s.compareTo(HALF_N) > 0) {
+            byte[] low = N.subtract(s).toByteArray(); // < n/2: at most 32 bytes, no sign byte
+            Arrays.fill(raw, EcKeys.FIELD_BYTES, raw.length, (byte) 0);
+            System.arraycopy(low, 0, raw, raw.length - low.length, low.length);
+        }
+        return raw;
+    }
+}
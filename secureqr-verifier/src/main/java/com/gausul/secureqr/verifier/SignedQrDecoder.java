@@ -0,0 +1,146 @@
+package com.gausul.secureqr.verifier;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyFactory;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.Inflater;
+
+/**
+ * Parses signed QR texts (JSON or compact "SQ1:" form) into a SignedQrEnvelope.
+ * Read side of the app's CompactQrCodec; signatures come back as DER and leaf keys as X.509 DER.
+ * Thread-safe.
+ */
+public final class SignedQrDecoder {
+
+    public static final String COMPACT_PREFIX = "SQ1:";
+
+    public static final int VERSION = 1;
+    public static final int FLAG_DEFLATED = 1;
+    public static final int FLAG_KEY_ID = 2;
+    public static final int MAX_PAYLOAD_BYTES = 64 * 1024; // inflate limit
+
+    /** 33-byte compressed P-256 point -> X.509 DER; the app plugs in its cached key factory. */
+    @FunctionalInterface
+    public interface PointDecompressor {
+        byte[] toX509(byte[] compressed) throws Exception;
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final CBORFactory cbor = new CBORFactory();
+    private final PointDecompressor decompressor;
+
+    public SignedQrDecoder() {
+        this(compressed -> KeyFactory.getInstance("EC").generatePublic(EcKeys.decompress(compressed)).getEncoded());
+    }
+
+    public SignedQrDecoder(PointDecompressor decompressor) {
+        this.decompressor = decompressor;
+    }
+
+    public static boolean isCompact(String text) {
+        return text != null && text.startsWith(COMPACT_PREFIX);
+    }
+
+    /** Either format; null when a JSON QR lacks one of the signed fields. */
+    public SignedQrEnvelope decode(String text) throws Exception {
+        return isCompact(text) ? decodeCompact(text) : fromJson(parseJson(text));
+    }
+
+    public SignedQrEnvelope decodeCompact(String text) throws Exception {
+        if (!isCompact(text)) throw new IllegalArgumentException("not a compact signed QR");
+        byte[] envelope = Base45.decode(text.substring(COMPACT_PREFIX.length()));
+
+        try (JsonParser parser = cbor.createParser(envelope)) {
+            expect(parser, JsonToken.START_ARRAY);
+            int version = nextInt(parser);
+            if (version != VERSION) throw new IllegalArgumentException("unsupported compact QR version " + version);
+            int flags = nextInt(parser);
+            if ((flags & FLAG_KEY_ID) != 0) {
+                UUID leafId = uuid(nextBinary(parser));
+                byte[] signature = nextBinary(parser);
+                byte[] payload = nextBinary(parser);
+                if ((flags & FLAG_DEFLATED) != 0) payload = inflate(payload);
+
+                return new SignedQrEnvelope(QrPayloadEncoding.KEY_ID, new String(payload, StandardCharsets.UTF_8),
+                        EcKeys.rawToDer(signature), null, null, null, leafId);
+            }
+            byte[] leafKey = nextBinary(parser);
+            expect(parser, JsonToken.VALUE_STRING);
+            String issuerId = parser.getText();
+            byte[] issuerSignature = nextBinary(parser);
+            byte[] signature = nextBinary(parser);
+            byte[] payload = nextBinary(parser);
+            if ((flags & FLAG_DEFLATED) != 0) payload = inflate(payload);
+
+            return new SignedQrEnvelope(QrPayloadEncoding.COMPACT, new String(payload, StandardCharsets.UTF_8),
+                    EcKeys.rawToDer(signature), decompressor.toX509(leafKey),
+                    issuerId, EcKeys.rawToDer(issuerSignature), null);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Map<String, String> parseJson(String text) throws Exception {
+        return MAPPER.readValue(text, Map.class);
+    }
+
+    /** JSON QR fields (Base64 keys / DER signatures); null if payload, signature, pub or issuerSignature is missing. */
+    public static SignedQrEnvelope fromJson(Map<String, String> json) {
+        if (json.get("payload") == null || json.get("signature") == null || json.get("pub") == null
+                || json.get("issuerSignature") == null) {
+            return null;
+        }
+        Base64.Decoder b64 = Base64.getDecoder();
+        return new SignedQrEnvelope(QrPayloadEncoding.JSON, json.get("payload"), b64.decode(json.get("signature")),
+                b64.decode(json.get("pub")), json.get("issuerId"), b64.decode(json.get("issuerSignature")), null);
+    }
+
+    private static UUID uuid(byte[] bytes) {
+        if (bytes.length != 16) throw new IllegalArgumentException("malformed compact QR leaf id");
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        return new UUID(buf.getLong(), buf.getLong());
+    }
+
+    private static byte[] inflate(byte[] data) throws Exception {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+            byte[] buf = new byte[4096];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buf);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("truncated compact QR payload");
+                }
+                out.write(buf, 0, n);
+                if (out.size() > MAX_PAYLOAD_BYTES) throw new IllegalArgumentException("compact QR payload too large");
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void expect(JsonParser parser, JsonToken token) throws Exception {
+        if (parser.nextToken() != token) throw new IllegalArgumentException("malformed compact QR envelope");
+    }
+
+    private static int nextInt(JsonParser parser) throws Exception {
+        expect(parser, JsonToken.VALUE_NUMBER_INT);
+        return parser.getIntValue();
+    }
+
+    private static byte[] nextBinary(JsonParser parser) throws Exception {
+        expect(parser, JsonToken.VALUE_EMBEDDED_OBJECT);
+        return parser.getBinaryValue();
+    }
+}
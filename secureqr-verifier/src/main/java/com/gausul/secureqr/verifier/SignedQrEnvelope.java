@@ -0,0 +1,74 @@
+package com.gausul.secureqr.verifier;
+
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A decoded signed QR, whichever text format it came in. Keys and signatures are raw encodings
+ * (X.509 DER / DER ECDSA); Base64 only appears in toDisplayMap(), for API responses.
+ * Key-id QRs carry leafId instead of leafPublicKey / issuerId / issuerSignature.
+ */
+public final class SignedQrEnvelope {
+
+    private final QrPayloadEncoding encoding;
+    private final String payload;
+    private final byte[] signature;
+    private final byte[] leafPublicKey;
+    private final String issuerId;
+    private final byte[] issuerSignature;
+    private final UUID leafId;
+
+    public SignedQrEnvelope(QrPayloadEncoding encoding, String payload, byte[] signature, byte[] leafPublicKey,
+                            String issuerId, byte[] issuerSignature, UUID leafId) {
+        this.encoding = encoding;
+        this.payload = payload;
+        this.signature = signature;
+        this.leafPublicKey = leafPublicKey;
+        this.issuerId = issuerId;
+        this.issuerSignature = issuerSignature;
+        this.leafId = leafId;
+    }
+
+    public QrPayloadEncoding getEncoding() {
+        return encoding;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public byte[] getSignature() {
+        return signature;
+    }
+
+    public byte[] getLeafPublicKey() {
+        return leafPublicKey;
+    }
+
+    public String getIssuerId() {
+        return issuerId;
+    }
+
+    public byte[] getIssuerSignature() {
+        return issuerSignature;
+    }
+
+    public UUID getLeafId() {
+        return leafId;
+    }
+
+    // same field names as the JSON QR format
+    public Map<String, String> toDisplayMap() {
+        Base64.Encoder b64 = Base64.getEncoder();
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("payload", payload);
+        if (signature != null) fields.put("signature", b64.encodeToString(signature));
+        if (leafId != null) fields.put("leafId", leafId.toString());
+        if (leafPublicKey != null) fields.put("pub", b64.encodeToString(leafPublicKey));
+        if (issuerId != null) fields.put("issuerId", issuerId);
+        if (issuerSignature != null) fields.put("issuerSignature", b64.encodeToString(issuerSignature));
+        return fields;
+    }
+}
@@ -0,0 +1,188 @@
+package com.gausul.secureqr.verifier;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.Signature;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Embeddable signed-QR verification without Spring or a database: the same two ECDSA checks as the
+ * app (payload under the leaf key, leaf key under its issuer root), against either a fixed set of root
+ * keys or a TrustBundle. With a bundle, key-id QRs resolve their leaf from it and revocations apply.
+ * Thread-safe; construction does no I/O beyond what the caller passes in.
+ */
+public final class SignedQrVerifier {
+
+    /** Outcome of one verification; error is set (and both flags false) when the QR couldn't be checked. */
+    public static final class Result {
+        private final SignedQrEnvelope envelope;
+        private final String issuerId;
+        private final boolean payloadValid;
+        private final boolean issuerValid;
+        private final String revoked; // null | "leaf" | "qr"
+        private final String error;
+
+        Result(SignedQrEnvelope envelope, String issuerId, boolean payloadValid, boolean issuerValid,
+               String revoked, String error) {
+            this.envelope = envelope;
+            this.issuerId = issuerId;
+            this.payloadValid = payloadValid;
+            this.issuerValid = issuerValid;
+            this.revoked = revoked;
+            this.error = error;
+        }
+
+        static Result error(SignedQrEnvelope envelope, String error) {
+            return new Result(envelope, null, false, false, null, error);
+        }
+
+        public SignedQrEnvelope getEnvelope() { return envelope; }
+        public String getPayload() { return envelope != null ? envelope.getPayload() : null; }
+        public String getIssuerId() { return issuerId; }
+        public boolean isPayloadValid() { return payloadValid; }
+        public boolean isIssuerValid() { return issuerValid; }
+        public String getRevoked() { return revoked; }
+        public String getError() { return error; }
+
+        public boolean isValid() {
+            return payloadValid && issuerValid;
+        }
+
+        // same keys as the app's /read-* responses
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            if (envelope != null) {
+                map.put("decoded", envelope.toDisplayMap());
+                map.put("encoding", envelope.getEncoding().name().toLowerCase().replace('_', '-'));
+            }
+            if (error != null) {
+                map.put("error", error);
+                return map;
+            }
+            map.put("payloadValid", payloadValid);
+            map.put("issuerValid", issuerValid);
+            map.put("revoked", revoked != null ? revoked : false);
+            if (issuerId != null) map.put("issuerId", issuerId);
+            return map;
+        }
+    }
+
+    private final SignedQrDecoder decoder = new SignedQrDecoder();
+    private final QrReader qrReader;
+
+    // exactly one of bundle / roots is set
+    private volatile TrustBundle bundle;
+    private final Map<String, byte[]> roots;
+    private final String defaultIssuerId;
+
+    /** Roots, key-id leaves and revocations from a verified bundle; swap in newer ones with updateBundle. */
+    public SignedQrVerifier(TrustBundle bundle) {
+        this(bundle, null, new QrReader());
+    }
+
+    /**
+     * Fixed roots (issuerId -> X.509 key), no revocations; key-id QRs can't be verified this way.
+     * The first entry is the default issuer for QRs without an issuerId.
+     */
+    public SignedQrVerifier(Map<String, byte[]> roots) {
+        this(null, roots, new QrReader());
+    }
+
+    public SignedQrVerifier(TrustBundle bundle, Map<String, byte[]> roots, QrReader qrReader) {
+        if ((bundle == null) == (roots == null)) throw new IllegalArgumentException("need either a trust bundle or root keys");
+        this.bundle = bundle;
+        this.roots = roots != null ? new LinkedHashMap<>(roots) : null;
+        this.defaultIssuerId = roots != null && !roots.isEmpty() ? roots.keySet().iterator().next() : null;
+        this.qrReader = qrReader;
+    }
+
+    // e.g. after layering a fresh delta on top (TrustBundle.withDelta)
+    public void updateBundle(TrustBundle next) {
+        if (bundle == null) throw new IllegalStateException("verifier was built with fixed root keys");
+        bundle = next;
+    }
+
+    public TrustBundle getBundle() {
+        return bundle;
+    }
+
+    public Result verifyImage(Path image) throws Exception {
+        return verify(qrReader.readQr(image.toString()));
+    }
+
+    public Result verifyImage(byte[] image) throws Exception {
+        return verify(qrReader.readQr(image));
+    }
+
+    /** Verifies decoded QR text; malformed envelopes come back as an error Result, not an exception. */
+    public Result verify(String text) {
+        TrustBundle bundle = this.bundle; // one snapshot per verification
+        SignedQrEnvelope envelope;
+        try {
+            envelope = decoder.decode(text);
+        } catch (Exception ex) {
+            return Result.error(null, "malformed signed QR: " + ex.getMessage());
+        }
+        if (envelope == null) return Result.error(null, "missing fields");
+
+        try {
+            byte[] leafPub;
+            byte[] issuerSignature;
+            String issuerId;
+            if (envelope.getLeafId() != null) {
+                long location = bundle != null ? bundle.findLeaf(envelope.getLeafId()) : -1;
+                if (location < 0) return Result.error(envelope, "unknown leaf key");
+                leafPub = new byte[TrustBundle.LEAF_PUBLIC_KEY_BYTES];
+                bundle.copyLeafPublicKey(location, leafPub);
+                byte[] rawSignature = new byte[TrustBundle.ISSUER_SIGNATURE_BYTES];
+                bundle.copyLeafIssuerSignature(location, rawSignature);
+                issuerSignature = EcKeys.rawToDer(rawSignature);
+                issuerId = bundle.leafIssuerId(location);
+            } else {
+                leafPub = envelope.getLeafPublicKey();
+                issuerSignature = envelope.getIssuerSignature();
+                issuerId = envelope.getIssuerId() != null ? envelope.getIssuerId()
+                        : bundle != null ? bundle.defaultIssuerId() : defaultIssuerId;
+            }
+
+            // 1) payload signature under the leaf key
+            boolean payloadValid = verifyEcdsa(envelope.getPayload().getBytes(StandardCharsets.UTF_8),
+                    envelope.getSignature(), leafPub);
+
+            // 2) leaf key under the issuer root
+            byte[] rootPub = bundle != null ? bundle.rootPublicKey(issuerId) : roots.get(issuerId);
+            boolean issuerValid = rootPub != null && verifyEcdsa(chainMessage(leafPub), issuerSignature, rootPub);
+
+            String revoked = null;
+            if (bundle != null) {
+                MessageDigest md = MessageDigest.getInstance("SHA-256");
+                if (bundle.isRevoked(RevocationFingerprint.leaf(md, leafPub))) revoked = "leaf";
+                else if (bundle.isRevoked(RevocationFingerprint.qr(md, envelope.getSignature()))) revoked = "qr";
+            }
+            return new Result(envelope, issuerId, payloadValid && !"qr".equals(revoked),
+                    issuerValid && !"leaf".equals(revoked), revoked, null);
+        } catch (Exception ex) {
+            return Result.error(envelope, "verification failed: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * The bytes an issuer signs for a leaf: the Base64 text of the leaf's X.509 key. Leaves issued
+     * before keys were stored as DER were signed that way, so it stays the chain format.
+     */
+    public static byte[] chainMessage(byte[] leafPub) {
+        return Base64.getEncoder().encode(leafPub);
+    }
+
+    private static boolean verifyEcdsa(byte[] data, byte[] signatureDer, byte[] publicKeyX509) throws Exception {
+        Signature signature = Signature.getInstance("SHA256withECDSA");
+        signature.initVerify(KeyFactory.getInstance("EC").generatePublic(new X509EncodedKeySpec(publicKeyX509)));
+        signature.update(data);
+        return signature.verify(signatureDer);
+    }
+}
@@ -0,0 +1,308 @@
+package com.gausul.secureqr.verifier;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Read side of the offline trust bundle: a root-signed snapshot of issuers, leaf keys and revocations
+ * that lets verifiers work without the database (written by TrustBundleWriter).
+ *
+ * Layout (big-endian):
+ * <pre>
+ *   header (72)   "SQTB", version u16, flags u16 (1 = delta), createdAt, leafWatermark, revocationSeq,
+ *                 baseCreatedAt, baseLeafWatermark, baseRevocationSeq (i64 each; base* = 0 in full
+ *                 bundles), rootCount, leafCount, revocationCount (i32), signerIndex u16, reserved u16
+ *   roots         per root: u16 length + issuerId (UTF-8), u16 length + X.509 key; padded to 8 bytes
+ *   leaves        leafCount x 176 bytes, sorted by id (unsigned): id (16), issuerIndex u16, reserved u16,
+ *                 X.509 public key (91), issuer signature raw r||s (64), padding (1)
+ *   revocations   revocationCount x 32-byte RevocationFingerprints, sorted (unsigned)
+ *   signature     DER SHA256withECDSA by roots[signerIndex] over everything before it, then u16 length
+ * </pre>
+ * The file is memory-mapped; leaf and revocation lookups are binary searches over the mapped entries
+ * and allocate nothing. Delta bundles carry the leaves and revocations added since a base bundle and
+ * are layered on top of it (withDelta), newest first.
+ */
+public final class TrustBundle {
+
+    public static final String MEDIA_TYPE = "application/vnd.secureqr.trust-bundle";
+
+    static final byte[] MAGIC = "SQTB".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 1;
+    static final int FLAG_DELTA = 1;
+    static final int HEADER_BYTES = 72;
+    static final int LEAF_ENTRY_BYTES = 176;
+    static final int LEAF_ISSUER_OFFSET = 16;
+    static final int LEAF_PUBLIC_KEY_OFFSET = 20;
+    static final int LEAF_SIGNATURE_OFFSET = LEAF_PUBLIC_KEY_OFFSET + 91;
+
+    // P-256 named-curve X.509 SubjectPublicKeyInfo
+    public static final int LEAF_PUBLIC_KEY_BYTES = 91;
+    public static final int ISSUER_SIGNATURE_BYTES = 2 * EcKeys.FIELD_BYTES;
+
+    /** createdAt / leafWatermark in epoch millis; revocationSeq = highest revocation id included. */
+    public static final class Watermarks {
+        private final long createdAt;
+        private final long leafWatermark;
+        private final long revocationSeq;
+
+        public Watermarks(long createdAt, long leafWatermark, long revocationSeq) {
+            this.createdAt = createdAt;
+            this.leafWatermark = leafWatermark;
+            this.revocationSeq = revocationSeq;
+        }
+
+        public long getCreatedAt() { return createdAt; }
+        public long getLeafWatermark() { return leafWatermark; }
+        public long getRevocationSeq() { return revocationSeq; }
+
+        boolean sameAs(Watermarks other) {
+            return createdAt == other.createdAt && leafWatermark == other.leafWatermark && revocationSeq == other.revocationSeq;
+        }
+    }
+
+    // one mapped file
+    private static final class Layer {
+        final ByteBuffer buf;
+        final Watermarks watermarks;
+        final Watermarks base; // null for a full bundle
+        final String[] rootIds;
+        final byte[][] rootKeys;
+        final int leafOffset;
+        final int leafCount;
+        final int revocationOffset;
+        final int revocationCount;
+
+        Layer(ByteBuffer buf, Watermarks watermarks, Watermarks base, String[] rootIds, byte[][] rootKeys,
+              int leafOffset, int leafCount, int revocationOffset, int revocationCount) {
+            this.buf = buf;
+            this.watermarks = watermarks;
+            this.base = base;
+            this.rootIds = rootIds;
+            this.rootKeys = rootKeys;
+            this.leafOffset = leafOffset;
+            this.leafCount = leafCount;
+            this.revocationOffset = revocationOffset;
+            this.revocationCount = revocationCount;
+        }
+    }
+
+    private final List<Layer> layers; // newest first
+
+    private TrustBundle(List<Layer> layers) {
+        this.layers = layers;
+    }
+
+    /**
+     * Maps and verifies a full bundle. pinnedRootKeys are the X.509 root keys the verifier trusts
+     * out of band; the bundle must be signed by one of them.
+     */
+    public static TrustBundle open(Path file, Collection<byte[]> pinnedRootKeys) throws IOException, GeneralSecurityException {
+        Layer layer = map(file, pinnedRootKeys);
+        if (layer.base != null) throw new GeneralSecurityException("delta bundle given where a full bundle is expected");
+        return new TrustBundle(List.of(layer));
+    }
+
+    /** This bundle with a delta layered on top; the delta must have been exported against watermarks(). */
+    public TrustBundle withDelta(Path deltaFile, Collection<byte[]> pinnedRootKeys) throws IOException, GeneralSecurityException {
+        Layer delta = map(deltaFile, pinnedRootKeys);
+        if (delta.base == null || !delta.base.sameAs(watermarks())) {
+            throw new GeneralSecurityException("delta bundle does not apply to this bundle");
+        }
+        List<Layer> next = new ArrayList<>(layers.size() + 1);
+        next.add(delta);
+        next.addAll(layers);
+        return new TrustBundle(List.copyOf(next));
+    }
+
+    public Watermarks watermarks() {
+        return layers.get(0).watermarks;
+    }
+
+    // query string for fetching the next delta from the export endpoint
+    public String deltaQuery() {
+        Watermarks w = watermarks();
+        return "baseCreatedAt=" + w.getCreatedAt() + "&baseLeafWatermark=" + w.getLeafWatermark()
+                + "&baseRevocationSeq=" + w.getRevocationSeq();
+    }
+
+    // --- roots ---
+
+    /** X.509 root key for issuerId (newest layer wins), or null; the returned array must not be modified. */
+    public byte[] rootPublicKey(String issuerId) {
+        for (Layer layer : layers) {
+            for (int i = 0; i < layer.rootIds.length; i++) {
+                if (layer.rootIds[i].equals(issuerId)) return layer.rootKeys[i];
+            }
+        }
+        return null;
+    }
+
+    // roots are written oldest first; the oldest issuer is the one QRs without an issuerId chain to
+    public String defaultIssuerId() {
+        String[] rootIds = layers.get(layers.size() - 1).rootIds;
+        return rootIds.length > 0 ? rootIds[0] : null;
+    }
+
+    // --- leaves ---
+
+    /**
+     * Locates a leaf key: an opaque location for the leaf* accessors, or -1 if the bundle doesn't know it.
+     */
+    public long findLeaf(UUID leafId) {
+        long msb = leafId.getMostSignificantBits();
+        long lsb = leafId.getLeastSignificantBits();
+        for (int l = 0; l < layers.size(); l++) {
+            Layer layer = layers.get(l);
+            int lo = 0;
+            int hi = layer.leafCount - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int at = layer.leafOffset + mid * LEAF_ENTRY_BYTES;
+                int cmp = Long.compareUnsigned(layer.buf.getLong(at), msb);
+                if (cmp == 0) cmp = Long.compareUnsigned(layer.buf.getLong(at + 8), lsb);
+                if (cmp == 0) return ((long) l << 32) | mid;
+                if (cmp < 0) lo = mid + 1;
+                else hi = mid - 1;
+            }
+        }
+        return -1;
+    }
+
+    public String leafIssuerId(long location) {
+        Layer layer = layers.get((int) (location >>> 32));
+        return layer.rootIds[layer.buf.getShort(entry(layer, location) + LEAF_ISSUER_OFFSET) & 0xFFFF];
+    }
+
+    // copies the leaf's X.509 key (LEAF_PUBLIC_KEY_BYTES) into dst
+    public void copyLeafPublicKey(long location, byte[] dst) {
+        Layer layer = layers.get((int) (location >>> 32));
+        layer.buf.get(entry(layer, location) + LEAF_PUBLIC_KEY_OFFSET, dst, 0, LEAF_PUBLIC_KEY_BYTES);
+    }
+
+    // copies the issuer's raw r||s signature over the leaf key (ISSUER_SIGNATURE_BYTES) into dst
+    public void copyLeafIssuerSignature(long location, byte[] dst) {
+        Layer layer = layers.get((int) (location >>> 32));
+        layer.buf.get(entry(layer, location) + LEAF_SIGNATURE_OFFSET, dst, 0, ISSUER_SIGNATURE_BYTES);
+    }
+
+    private static int entry(Layer layer, long location) {
+        return layer.leafOffset + (int) location * LEAF_ENTRY_BYTES;
+    }
+
+    // --- revocations ---
+
+    /** Whether a RevocationFingerprint is revoked in any layer. */
+    public boolean isRevoked(byte[] fingerprint) {
+        long f0 = readLong(fingerprint, 0);
+        long f1 = readLong(fingerprint, 8);
+        long f2 = readLong(fingerprint, 16);
+        long f3 = readLong(fingerprint, 24);
+        for (Layer layer : layers) {
+            int lo = 0;
+            int hi = layer.revocationCount - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int at = layer.revocationOffset + mid * RevocationFingerprint.LENGTH;
+                int cmp = Long.compareUnsigned(layer.buf.getLong(at), f0);
+                if (cmp == 0) cmp = Long.compareUnsigned(layer.buf.getLong(at + 8), f1);
+                if (cmp == 0) cmp = Long.compareUnsigned(layer.buf.getLong(at + 16), f2);
+                if (cmp == 0) cmp = Long.compareUnsigned(layer.buf.getLong(at + 24), f3);
+                if (cmp == 0) return true;
+                if (cmp < 0) lo = mid + 1;
+                else hi = mid - 1;
+            }
+        }
+        return false;
+    }
+
+    // --- loading ---
+
+    private static Layer map(Path file, Collection<byte[]> pinnedRootKeys) throws IOException, GeneralSecurityException {
+        ByteBuffer buf;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException("trust bundle too large: " + file);
+            buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // stays valid after close
+        }
+        try {
+            return parse(buf, pinnedRootKeys);
+        } catch (IndexOutOfBoundsException | IllegalArgumentException ex) {
+            throw new GeneralSecurityException("malformed trust bundle: " + file, ex);
+        }
+    }
+
+    private static Layer parse(ByteBuffer buf, Collection<byte[]> pinnedRootKeys) throws GeneralSecurityException {
+        byte[] magic = new byte[MAGIC.length];
+        buf.get(0, magic);
+        if (!Arrays.equals(magic, MAGIC)) throw new GeneralSecurityException("not a trust bundle");
+        if ((buf.getShort(4) & 0xFFFF) != VERSION) throw new GeneralSecurityException("unsupported trust bundle version");
+        boolean delta = (buf.getShort(6) & FLAG_DELTA) != 0;
+        Watermarks watermarks = new Watermarks(buf.getLong(8), buf.getLong(16), buf.getLong(24));
+        Watermarks base = delta ? new Watermarks(buf.getLong(32), buf.getLong(40), buf.getLong(48)) : null;
+        int rootCount = buf.getInt(56);
+        int leafCount = buf.getInt(60);
+        int revocationCount = buf.getInt(64);
+        int signerIndex = buf.getShort(68) & 0xFFFF;
+
+        String[] rootIds = new String[rootCount];
+        byte[][] rootKeys = new byte[rootCount][];
+        int pos = HEADER_BYTES;
+        for (int i = 0; i < rootCount; i++) {
+            byte[] id = new byte[buf.getShort(pos) & 0xFFFF];
+            buf.get(pos + 2, id);
+            pos += 2 + id.length;
+            rootIds[i] = new String(id, StandardCharsets.UTF_8);
+            rootKeys[i] = new byte[buf.getShort(pos) & 0xFFFF];
+            buf.get(pos + 2, rootKeys[i]);
+            pos += 2 + rootKeys[i].length;
+        }
+        int leafOffset = align8(pos);
+        int revocationOffset = Math.addExact(leafOffset, Math.multiplyExact(leafCount, LEAF_ENTRY_BYTES));
+        int signatureOffset = Math.addExact(revocationOffset, Math.multiplyExact(revocationCount, RevocationFingerprint.LENGTH));
+
+        int signatureLength = buf.getShort(buf.limit() - 2) & 0xFFFF;
+        if (signatureOffset + signatureLength + 2 != buf.limit()) throw new GeneralSecurityException("trust bundle size mismatch");
+        if (signerIndex >= rootCount) throw new GeneralSecurityException("trust bundle signer missing");
+        verifySignature(buf, signatureOffset, signatureLength, rootKeys[signerIndex], pinnedRootKeys);
+
+        return new Layer(buf, watermarks, base, rootIds, rootKeys, leafOffset, leafCount, revocationOffset, revocationCount);
+    }
+
+    private static void verifySignature(ByteBuffer buf, int signatureOffset, int signatureLength, byte[] signerKey,
+                                        Collection<byte[]> pinnedRootKeys) throws GeneralSecurityException {
+        boolean pinned = false;
+        for (byte[] key : pinnedRootKeys) pinned |= Arrays.equals(key, signerKey);
+        if (!pinned) throw new GeneralSecurityException("trust bundle not signed by a pinned root");
+
+        PublicKey publicKey = KeyFactory.getInstance("EC").generatePublic(new X509EncodedKeySpec(signerKey));
+        Signature verifier = Signature.getInstance("SHA256withECDSA");
+        verifier.initVerify(publicKey);
+        verifier.update(buf.duplicate().position(0).limit(signatureOffset));
+        byte[] signature = new byte[signatureLength];
+        buf.get(signatureOffset, signature);
+        if (!verifier.verify(signature)) throw new GeneralSecurityException("trust bundle signature invalid");
+    }
+
+    static int align8(int pos) {
+        return (pos + 7) & ~7;
+    }
+
+    private static long readLong(byte[] b, int off) {
+        long v = 0;
+        for (int i = 0; i < 8; i++) v = (v << 8) | (b[off + i] & 0xFF);
+        return v;
+    }
+}
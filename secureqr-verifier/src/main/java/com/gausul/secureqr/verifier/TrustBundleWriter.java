@@ -0,0 +1,144 @@
+package com.gausul.secureqr.verifier;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Write side of the trust bundle format (see TrustBundle for the layout). Builds the whole file in
+ * memory: 176 bytes per leaf, 32 per revocation.
+ */
+public final class TrustBundleWriter {
+
+    /** Signs the bundle content (SHA256withECDSA, DER) with the signerId root's private key. */
+    @FunctionalInterface
+    public interface Signer {
+        byte[] sign(byte[] content) throws Exception;
+    }
+
+    public static final class Leaf {
+        private final UUID id;
+        private final String issuerId;
+        private final byte[] publicKey;       // X.509
+        private final byte[] issuerSignature; // DER
+
+        public Leaf(UUID id, String issuerId, byte[] publicKey, byte[] issuerSignature) {
+            this.id = id;
+            this.issuerId = issuerId;
+            this.publicKey = publicKey;
+            this.issuerSignature = issuerSignature;
+        }
+    }
+
+    private TrustBundleWriter() {
+    }
+
+    /**
+     * @param base        watermarks of the bundle this delta applies to; null for a full bundle
+     * @param roots       issuerId -> X.509 root key, in the order they are written
+     * @param signerId    issuerId of the root that signs the bundle (with signer)
+     * @param revocations RevocationFingerprints
+     */
+    public static byte[] write(TrustBundle.Watermarks watermarks, TrustBundle.Watermarks base,
+                               LinkedHashMap<String, byte[]> roots, String signerId,
+                               List<Leaf> leaves, List<byte[]> revocations, Signer signer) throws Exception {
+        Map<String, Integer> rootIndex = new HashMap<>();
+        int rootsBytes = 0;
+        for (Map.Entry<String, byte[]> root : roots.entrySet()) {
+            rootIndex.put(root.getKey(), rootIndex.size());
+            rootsBytes += 4 + root.getKey().getBytes(StandardCharsets.UTF_8).length + root.getValue().length;
+        }
+        Integer signerIndex = rootIndex.get(signerId);
+        if (signerIndex == null) throw new IllegalArgumentException("signer is not among the roots: " + signerId);
+
+        List<Leaf> sortedLeaves = sortedUnique(leaves);
+        List<byte[]> sortedRevocations = new ArrayList<>(revocations);
+        sortedRevocations.sort(Arrays::compareUnsigned);
+        sortedRevocations = dedupe(sortedRevocations);
+
+        int leafOffset = TrustBundle.align8(TrustBundle.HEADER_BYTES + rootsBytes);
+        int revocationOffset = leafOffset + sortedLeaves.size() * TrustBundle.LEAF_ENTRY_BYTES;
+        int signatureOffset = revocationOffset + sortedRevocations.size() * RevocationFingerprint.LENGTH;
+        ByteBuffer buf = ByteBuffer.allocate(signatureOffset);
+
+        // header
+        buf.put(TrustBundle.MAGIC);
+        buf.putShort((short) TrustBundle.VERSION);
+        buf.putShort((short) (base != null ? TrustBundle.FLAG_DELTA : 0));
+        buf.putLong(watermarks.getCreatedAt());
+        buf.putLong(watermarks.getLeafWatermark());
+        buf.putLong(watermarks.getRevocationSeq());
+        buf.putLong(base != null ? base.getCreatedAt() : 0);
+        buf.putLong(base != null ? base.getLeafWatermark() : 0);
+        buf.putLong(base != null ? base.getRevocationSeq() : 0);
+        buf.putInt(roots.size());
+        buf.putInt(sortedLeaves.size());
+        buf.putInt(sortedRevocations.size());
+        buf.putShort((short) (int) signerIndex);
+        buf.putShort((short) 0);
+
+        for (Map.Entry<String, byte[]> root : roots.entrySet()) {
+            byte[] id = root.getKey().getBytes(StandardCharsets.UTF_8);
+            buf.putShort((short) id.length).put(id);
+            buf.putShort((short) root.getValue().length).put(root.getValue());
+        }
+
+        buf.position(leafOffset);
+        for (Leaf leaf : sortedLeaves) {
+            Integer issuer = rootIndex.get(leaf.issuerId);
+            if (issuer == null) throw new IllegalArgumentException("leaf " + leaf.id + " has unknown issuer " + leaf.issuerId);
+            if (leaf.publicKey.length != TrustBundle.LEAF_PUBLIC_KEY_BYTES) {
+                throw new IllegalArgumentException("leaf " + leaf.id + " is not a P-256 X.509 key");
+            }
+            int start = buf.position();
+            buf.putLong(leaf.id.getMostSignificantBits());
+            buf.putLong(leaf.id.getLeastSignificantBits());
+            buf.putShort((short) (int) issuer);
+            buf.putShort((short) 0);
+            buf.put(leaf.publicKey);
+            buf.put(EcKeys.derToRaw(leaf.issuerSignature));
+            buf.position(start + TrustBundle.LEAF_ENTRY_BYTES);
+        }
+
+        for (byte[] fingerprint : sortedRevocations) {
+            if (fingerprint.length != RevocationFingerprint.LENGTH) throw new IllegalArgumentException("bad revocation fingerprint");
+            buf.put(fingerprint);
+        }
+
+        byte[] content = buf.array();
+        byte[] signature = signer.sign(content);
+        byte[] out = Arrays.copyOf(content, content.length + signature.length + 2);
+        System.arraycopy(signature, 0, out, content.length, signature.length);
+        out[out.length - 2] = (byte) (signature.length >>> 8);
+        out[out.length - 1] = (byte) signature.length;
+        return out;
+    }
+
+    // by id (unsigned, as TrustBundle searches), one entry per id
+    private static List<Leaf> sortedUnique(List<Leaf> leaves) {
+        List<Leaf> sorted = new ArrayList<>(leaves);
+        sorted.sort((a, b) -> {
+            int cmp = Long.compareUnsigned(a.id.getMostSignificantBits(), b.id.getMostSignificantBits());
+            return cmp != 0 ? cmp : Long.compareUnsigned(a.id.getLeastSignificantBits(), b.id.getLeastSignificantBits());
+        });
+        List<Leaf> unique = new ArrayList<>(sorted.size());
+        for (Leaf leaf : sorted) {
+            if (unique.isEmpty() || !unique.get(unique.size() - 1).id.equals(leaf.id)) unique.add(leaf);
+        }
+        return unique;
+    }
+
+    private static List<byte[]> dedupe(List<byte[]> sorted) {
+        List<byte[]> unique = new ArrayList<>(sorted.size());
+        for (byte[] fingerprint : sorted) {
+            if (unique.isEmpty() || !Arrays.equals(unique.get(unique.size() - 1), fingerprint)) unique.add(fingerprint);
+        }
+        return unique;
+    }
+}
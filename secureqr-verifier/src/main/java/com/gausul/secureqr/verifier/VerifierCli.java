@@ -0,0 +1,122 @@
+package com.gausul.secureqr.verifier;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command-line entry point of the verifier module:
+ * <pre>
+ *   java -jar secureqr-verifier-cli.jar --root [issuerId=]&lt;base64 | file&gt; ... [--bundle file [--delta file]...]
+ *        [--text qrText | --text -] [image ...]
+ * </pre>
+ * Roots are the trusted X.509 issuer keys (Base64, or a file with DER / Base64). With --bundle they only
+ * pin the bundle signer and everything else comes from the bundle. "--text -" reads one QR text per line
+ * from stdin. Prints one JSON result per input; exit code 1 if any input didn't verify, 2 on bad usage.
+ */
+public final class VerifierCli {
+
+    private VerifierCli() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, byte[]> roots = new LinkedHashMap<>();
+        Path bundleFile = null;
+        List<Path> deltaFiles = new ArrayList<>();
+        List<String> texts = new ArrayList<>();
+        List<Path> images = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--root" -> {
+                    String value = requireValue(args, ++i, arg);
+                    int eq = value.indexOf('=');
+                    String issuerId = eq > 0 ? value.substring(0, eq) : "root-" + (roots.size() + 1);
+                    roots.put(issuerId, readKey(eq > 0 ? value.substring(eq + 1) : value));
+                }
+                case "--bundle" -> bundleFile = Path.of(requireValue(args, ++i, arg));
+                case "--delta" -> deltaFiles.add(Path.of(requireValue(args, ++i, arg)));
+                case "--text" -> texts.add(requireValue(args, ++i, arg));
+                default -> images.add(Path.of(arg));
+            }
+        }
+        if (roots.isEmpty() || (texts.isEmpty() && images.isEmpty()) || (bundleFile == null && !deltaFiles.isEmpty())) {
+            usage();
+            return;
+        }
+
+        SignedQrVerifier verifier;
+        if (bundleFile != null) {
+            TrustBundle bundle = TrustBundle.open(bundleFile, roots.values());
+            for (Path delta : deltaFiles) bundle = bundle.withDelta(delta, roots.values());
+            verifier = new SignedQrVerifier(bundle);
+        } else {
+            verifier = new SignedQrVerifier(roots);
+        }
+
+        ObjectMapper mapper = new ObjectMapper();
+        boolean allValid = true;
+        for (String text : texts) {
+            if (text.equals("-")) {
+                BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+                for (String line = in.readLine(); line != null; line = in.readLine()) {
+                    if (line.isBlank()) continue;
+                    allValid &= print(mapper, null, verifier.verify(line.strip()));
+                }
+            } else {
+                allValid &= print(mapper, null, verifier.verify(text));
+            }
+        }
+        for (Path image : images) {
+            SignedQrVerifier.Result result;
+            try {
+                result = verifier.verifyImage(image);
+            } catch (Exception ex) {
+                result = SignedQrVerifier.Result.error(null, "no QR read: " + ex.getMessage());
+            }
+            allValid &= print(mapper, image, result);
+        }
+        if (!allValid) System.exit(1);
+    }
+
+    private static boolean print(ObjectMapper mapper, Path image, SignedQrVerifier.Result result) throws Exception {
+        Map<String, Object> line = new LinkedHashMap<>();
+        if (image != null) line.put("file", image.toString());
+        line.putAll(result.toMap());
+        System.out.println(mapper.writeValueAsString(line));
+        return result.isValid();
+    }
+
+    // Base64 X.509 inline, or a file holding DER or Base64 text
+    private static byte[] readKey(String value) throws Exception {
+        Path path = Path.of(value);
+        if (!Files.isRegularFile(path)) return Base64.getDecoder().decode(value.strip());
+        byte[] bytes = Files.readAllBytes(path);
+        if (bytes.length > 0 && bytes[0] == 0x30) return bytes; // DER SEQUENCE
+        return Base64.getMimeDecoder().decode(new String(bytes, StandardCharsets.US_ASCII).strip());
+    }
+
+    private static String requireValue(String[] args, int i, String flag) {
+        if (i >= args.length) {
+            usage();
+            throw new IllegalArgumentException(flag + " needs a value");
+        }
+        return args[i];
+    }
+
+    private static void usage() {
+        System.err.println("usage: secureqr-verifier --root [issuerId=]<base64|file> ... [--bundle file [--delta file]...] "
+                + "[--text qrText | --text -] [image ...]");
+        System.exit(2);
+    }
+}
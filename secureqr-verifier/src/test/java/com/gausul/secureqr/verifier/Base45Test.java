@@ -0,0 +1,44 @@
+package com.gausul.secureqr.verifier;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class Base45Test {
+
+    // RFC 9285 section 4.3 / 4.4
+    @Test
+    void matchesRfc9285Examples() {
+        assertEquals("BB8", Base45.encode(ascii("AB")));
+        assertEquals("%69 VD92EX0", Base45.encode(ascii("Hello!!")));
+        assertEquals("UJCLQE7W581", Base45.encode(ascii("base-45")));
+        assertArrayEquals(ascii("ietf!"), Base45.decode("QED8WEX0"));
+    }
+
+    @Test
+    void roundTripsAnyBytes() {
+        Random random = new Random(45);
+        for (int len = 0; len < 300; len++) {
+            byte[] data = new byte[len];
+            random.nextBytes(data);
+            assertArrayEquals(data, Base45.decode(Base45.encode(data)));
+        }
+    }
+
+    @Test
+    void rejectsInvalidInput() {
+        assertThrows(IllegalArgumentException.class, () -> Base45.decode("BB8B"));   // length 3n + 1
+        assertThrows(IllegalArgumentException.class, () -> Base45.decode("bb8"));    // lower case is not in the alphabet
+        assertThrows(IllegalArgumentException.class, () -> Base45.decode(":::"));    // 65535 < value
+        assertThrows(IllegalArgumentException.class, () -> Base45.decode("::"));     // 255 < value
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,70 @@
+package com.gausul.secureqr.verifier;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.interfaces.ECPublicKey;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EcKeysTest {
+
+    @Test
+    void derAndRawRoundTrip() throws Exception {
+        KeyPair leaf = RevocationFingerprintTest.keyPair();
+        // enough signatures that some r / s have a leading zero byte or need DER sign padding
+        for (int i = 0; i < 200; i++) {
+            byte[] data = ("payload-" + i).getBytes(StandardCharsets.UTF_8);
+            byte[] der = RevocationFingerprintTest.sign(leaf, data);
+            byte[] raw = EcKeys.derToRaw(der);
+
+            assertEquals(2 * EcKeys.FIELD_BYTES, raw.length);
+            assertArrayEquals(der, EcKeys.rawToDer(raw));
+            assertTrue(RevocationFingerprintTest.verify(leaf, data, EcKeys.rawToDer(raw)));
+        }
+    }
+
+    @Test
+    void shortComponentsArePaddedAndMinimal() {
+        byte[] raw = new byte[2 * EcKeys.FIELD_BYTES];
+        raw[EcKeys.FIELD_BYTES - 1] = 0x01;             // r = 1
+        raw[EcKeys.FIELD_BYTES] = (byte) 0x80;          // s with the high bit set
+        byte[] der = EcKeys.rawToDer(raw);
+
+        assertArrayEquals(new byte[]{0x30, 0x26, 0x02, 0x01, 0x01, 0x02, 0x21, 0x00, (byte) 0x80},
+                Arrays.copyOf(der, 9));
+        assertArrayEquals(raw, EcKeys.derToRaw(der));
+    }
+
+    @Test
+    void rejectsMalformedSignatures() {
+        assertThrows(IllegalArgumentException.class, () -> EcKeys.derToRaw(new byte[]{0x31, 0x06, 0x02, 0x01, 0x01, 0x02, 0x01, 0x01}));
+        assertThrows(IllegalArgumentException.class, () -> EcKeys.rawToDer(new byte[63]));
+    }
+
+    @Test
+    void compressedPointRoundTrip() throws Exception {
+        KeyFactory keyFactory = KeyFactory.getInstance("EC");
+        for (int i = 0; i < 20; i++) {
+            ECPublicKey key = (ECPublicKey) RevocationFingerprintTest.keyPair().getPublic();
+            byte[] compressed = EcKeys.compress(key);
+
+            assertEquals(1 + EcKeys.FIELD_BYTES, compressed.length);
+            assertArrayEquals(key.getEncoded(), keyFactory.generatePublic(EcKeys.decompress(compressed)).getEncoded());
+        }
+    }
+
+    @Test
+    void rejectsPointsOffTheCurve() throws Exception {
+        byte[] compressed = EcKeys.compress((ECPublicKey) RevocationFingerprintTest.keyPair().getPublic());
+        assertThrows(IllegalArgumentException.class, () -> EcKeys.decompress(Arrays.copyOf(compressed, 32)));
+        compressed[0] = 0x04;
+        assertThrows(IllegalArgumentException.class, () -> EcKeys.decompress(compressed));
+    }
+}
@@ -0,0 +1,45 @@
+package com.gausul.secureqr.verifier;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QrReaderTest {
+
+    private final QrReader reader = new QrReader(1024, 1_000_000, 100_000, 200_000, 64 * 1024);
+
+    @Test
+    void oversizedFrameIsRejectedBeforeReadingTheBody() {
+        InputStream body = new InputStream() {
+            @Override
+            public int read() {
+                throw new AssertionError("body must not be read");
+            }
+        };
+        // 200 x 200 RGB = 120000 bytes > 64 KiB
+        assertThrows(ImageTooLargeException.class,
+                () -> reader.decodeFrame(body, QrReader.FrameFormat.RGB, 200, 200, 0, 0, 200, 200));
+        // 2000 x 2000 = 4M pixels > maxImagePixels
+        assertThrows(ImageTooLargeException.class,
+                () -> reader.decodeFrame(body, QrReader.FrameFormat.GRAY, 2000, 2000, 0, 0, 2000, 2000));
+    }
+
+    @Test
+    void shortFrameIsRejected() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> reader.decodeFrame(new ByteArrayInputStream(new byte[100]), QrReader.FrameFormat.GRAY,
+                        20, 20, 0, 0, 20, 20));
+        assertEquals("frame has 100 bytes, expected at least 400", ex.getMessage());
+    }
+
+    @Test
+    void cropOutsideTheFrameIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> reader.decodeFrame(new ByteArrayInputStream(new byte[400]), QrReader.FrameFormat.GRAY,
+                        20, 20, 10, 10, 20, 20));
+    }
+}
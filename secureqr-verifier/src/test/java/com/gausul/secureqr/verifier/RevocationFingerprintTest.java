@@ -0,0 +1,128 @@
+package com.gausul.secureqr.verifier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RevocationFingerprintTest {
+
+    private static final byte[] DATA = "ticket-42".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void flippedSignatureHasTheSameFingerprint() throws Exception {
+        KeyPair leaf = keyPair();
+        byte[] signature = sign(leaf, DATA);
+        byte[] flipped = flipS(signature);
+
+        // (r, n - s) is just as valid, so it must not escape a revocation
+        assertTrue(verify(leaf, DATA, flipped));
+        assertFalse(Arrays.equals(signature, flipped));
+        assertArrayEquals(RevocationFingerprint.qr(sha256(), signature), RevocationFingerprint.qr(sha256(), flipped));
+    }
+
+    @Test
+    void normalizedSignatureIsLowS() throws Exception {
+        BigInteger halfN = EcKeys.P256.getOrder().shiftRight(1);
+        KeyPair leaf = keyPair();
+        for (int i = 0; i < 20; i++) {
+            byte[] signature = sign(leaf, DATA);
+            for (byte[] variant : List.of(signature, flipS(signature))) {
+                byte[] raw = RevocationFingerprint.normalizeSignature(variant);
+                BigInteger s = new BigInteger(1, Arrays.copyOfRange(raw, EcKeys.FIELD_BYTES, raw.length));
+                assertTrue(s.compareTo(halfN) <= 0);
+                assertEquals(2 * EcKeys.FIELD_BYTES, raw.length);
+            }
+        }
+    }
+
+    @Test
+    void kindsAndSignaturesAreDistinct() throws Exception {
+        KeyPair leaf = keyPair();
+        byte[] first = sign(leaf, DATA);
+        byte[] second = sign(leaf, DATA); // random nonce: a different QR for the same payload
+        byte[] key = leaf.getPublic().getEncoded();
+
+        assertFalse(Arrays.equals(RevocationFingerprint.qr(sha256(), first), RevocationFingerprint.qr(sha256(), second)));
+        assertFalse(Arrays.equals(RevocationFingerprint.leaf(sha256(), key), RevocationFingerprint.qr(sha256(), key)));
+        assertEquals(RevocationFingerprint.LENGTH, RevocationFingerprint.leaf(sha256(), key).length);
+    }
+
+    @Test
+    void malformedSignatureStillFingerprints() throws Exception {
+        byte[] junk = {0x01, 0x02, 0x03};
+        assertArrayEquals(junk, RevocationFingerprint.normalizeSignature(junk));
+        assertEquals(RevocationFingerprint.LENGTH, RevocationFingerprint.qr(sha256(), junk).length);
+    }
+
+    @Test
+    void trustBundleCatchesFlippedSignature() throws Exception {
+        KeyPair root = keyPair();
+        KeyPair leaf = keyPair();
+        byte[] signature = sign(leaf, DATA);
+
+        LinkedHashMap<String, byte[]> roots = new LinkedHashMap<>();
+        roots.put("ROOT-1", root.getPublic().getEncoded());
+        byte[] bundle = TrustBundleWriter.write(new TrustBundle.Watermarks(1, 1, 1), null, roots, "ROOT-1", List.of(),
+                List.of(RevocationFingerprint.qr(sha256(), signature)), content -> sign(root, content));
+        Path file = Files.write(dir.resolve("bundle.sqtb"), bundle);
+
+        TrustBundle trustBundle = TrustBundle.open(file, List.of(root.getPublic().getEncoded()));
+        assertTrue(trustBundle.isRevoked(RevocationFingerprint.qr(sha256(), signature)));
+        assertTrue(trustBundle.isRevoked(RevocationFingerprint.qr(sha256(), flipS(signature))));
+    }
+
+    // DER (r, s) -> DER (r, n - s)
+    static byte[] flipS(byte[] signatureDer) {
+        byte[] raw = EcKeys.derToRaw(signatureDer);
+        BigInteger s = new BigInteger(1, Arrays.copyOfRange(raw, EcKeys.FIELD_BYTES, raw.length));
+        byte[] flipped = EcKeys.P256.getOrder().subtract(s).toByteArray();
+        int len = Math.min(flipped.length, EcKeys.FIELD_BYTES);
+        Arrays.fill(raw, EcKeys.FIELD_BYTES, raw.length, (byte) 0);
+        System.arraycopy(flipped, flipped.length - len, raw, raw.length - len, len);
+        return EcKeys.rawToDer(raw);
+    }
+
+    static KeyPair keyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        return generator.generateKeyPair();
+    }
+
+    static byte[] sign(KeyPair keyPair, byte[] data) throws Exception {
+        Signature signer = Signature.getInstance("SHA256withECDSA");
+        signer.initSign(keyPair.getPrivate());
+        signer.update(data);
+        return signer.sign();
+    }
+
+    static boolean verify(KeyPair keyPair, byte[] data, byte[] signature) throws Exception {
+        Signature verifier = Signature.getInstance("SHA256withECDSA");
+        verifier.initVerify(keyPair.getPublic());
+        verifier.update(data);
+        return verifier.verify(signature);
+    }
+
+    private static MessageDigest sha256() throws Exception {
+        return MessageDigest.getInstance("SHA-256");
+    }
+}
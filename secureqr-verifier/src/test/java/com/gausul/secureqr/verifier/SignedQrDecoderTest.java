@@ -0,0 +1,81 @@
+package com.gausul.secureqr.verifier;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SignedQrDecoderTest {
+
+    private static final UUID LEAF_ID = UUID.fromString("01890a5d-ac96-774b-bcce-b302099a8057");
+
+    private final SignedQrDecoder decoder = new SignedQrDecoder();
+
+    @Test
+    void inflatesDeflatedPayload() throws Exception {
+        String payload = "ticket-".repeat(100);
+        SignedQrEnvelope envelope = decoder.decode(keyIdQr(deflate(payload.getBytes()), true));
+
+        assertEquals(payload, envelope.getPayload());
+        assertEquals(LEAF_ID, envelope.getLeafId());
+        assertEquals(QrPayloadEncoding.KEY_ID, envelope.getEncoding());
+    }
+
+    @Test
+    void refusesToInflatePastTheLimit() throws Exception {
+        // a few hundred bytes of QR that would inflate to 1 MiB
+        byte[] bomb = deflate(new byte[1024 * 1024]);
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> decoder.decode(keyIdQr(bomb, true)));
+        assertEquals("compact QR payload too large", ex.getMessage());
+
+        byte[] justOver = deflate(new byte[SignedQrDecoder.MAX_PAYLOAD_BYTES + 1]);
+        assertThrows(IllegalArgumentException.class, () -> decoder.decode(keyIdQr(justOver, true)));
+    }
+
+    @Test
+    void rejectsTruncatedDeflateStream() throws Exception {
+        byte[] deflated = deflate("ticket-".repeat(100).getBytes());
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> decoder.decode(keyIdQr(Arrays.copyOf(deflated, deflated.length / 2), true)));
+        assertEquals("truncated compact QR payload", ex.getMessage());
+    }
+
+    // key-id envelope as CompactQrCodec.encodeKeyId writes it, with the payload bytes given as is
+    private static String keyIdQr(byte[] payload, boolean deflated) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator gen = new CBORFactory().createGenerator(out)) {
+            gen.writeStartArray();
+            gen.writeNumber(SignedQrDecoder.VERSION);
+            gen.writeNumber(SignedQrDecoder.FLAG_KEY_ID | (deflated ? SignedQrDecoder.FLAG_DEFLATED : 0));
+            gen.writeBinary(ByteBuffer.allocate(16).putLong(LEAF_ID.getMostSignificantBits())
+                    .putLong(LEAF_ID.getLeastSignificantBits()).array());
+            gen.writeBinary(new byte[2 * EcKeys.FIELD_BYTES]);
+            gen.writeBinary(payload);
+            gen.writeEndArray();
+        }
+        return SignedQrDecoder.COMPACT_PREFIX + Base45.encode(out.toByteArray());
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[4096];
+            while (!deflater.finished()) out.write(buf, 0, deflater.deflate(buf));
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+}
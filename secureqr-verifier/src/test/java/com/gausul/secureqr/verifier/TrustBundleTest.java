@@ -0,0 +1,145 @@
+package com.gausul.secureqr.verifier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrustBundleTest {
+
+    @TempDir
+    Path dir;
+
+    private final KeyPair root1 = keyPair();
+    private final KeyPair root2 = keyPair();
+
+    @Test
+    void looksUpRootsLeavesAndRevocations() throws Exception {
+        List<TrustBundleWriter.Leaf> leaves = new ArrayList<>();
+        List<LeafFixture> fixtures = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            LeafFixture leaf = new LeafFixture(i % 2 == 0 ? "ROOT-1" : "ROOT-2", i % 2 == 0 ? root1 : root2);
+            fixtures.add(leaf);
+            leaves.add(leaf.entry());
+        }
+        byte[] revoked = RevocationFingerprint.leaf(sha256(), fixtures.get(3).publicKey);
+        TrustBundle bundle = TrustBundle.open(write("full.sqtb", new TrustBundle.Watermarks(10, 20, 30), null,
+                leaves, List.of(revoked)), List.of(root1.getPublic().getEncoded()));
+
+        assertEquals("ROOT-1", bundle.defaultIssuerId());
+        assertArrayEquals(root2.getPublic().getEncoded(), bundle.rootPublicKey("ROOT-2"));
+        assertEquals(null, bundle.rootPublicKey("ROOT-3"));
+        for (LeafFixture leaf : fixtures) {
+            long location = bundle.findLeaf(leaf.id);
+            assertTrue(location >= 0);
+            assertEquals(leaf.issuerId, bundle.leafIssuerId(location));
+            byte[] publicKey = new byte[TrustBundle.LEAF_PUBLIC_KEY_BYTES];
+            bundle.copyLeafPublicKey(location, publicKey);
+            assertArrayEquals(leaf.publicKey, publicKey);
+            byte[] issuerSignature = new byte[TrustBundle.ISSUER_SIGNATURE_BYTES];
+            bundle.copyLeafIssuerSignature(location, issuerSignature);
+            assertArrayEquals(EcKeys.derToRaw(leaf.issuerSignature), issuerSignature);
+        }
+        assertEquals(-1, bundle.findLeaf(UUID.randomUUID()));
+        assertTrue(bundle.isRevoked(revoked));
+        assertFalse(bundle.isRevoked(RevocationFingerprint.leaf(sha256(), fixtures.get(4).publicKey)));
+    }
+
+    @Test
+    void deltaLayersOnTopOfItsBase() throws Exception {
+        List<byte[]> pinned = List.of(root1.getPublic().getEncoded());
+        LeafFixture old = new LeafFixture("ROOT-1", root1);
+        LeafFixture added = new LeafFixture("ROOT-1", root1);
+        byte[] revoked = RevocationFingerprint.leaf(sha256(), old.publicKey);
+        TrustBundle.Watermarks base = new TrustBundle.Watermarks(10, 20, 30);
+        TrustBundle.Watermarks next = new TrustBundle.Watermarks(11, 21, 31);
+
+        TrustBundle full = TrustBundle.open(write("full.sqtb", base, null, List.of(old.entry()), List.of()), pinned);
+        Path delta = write("delta.sqtb", next, base, List.of(added.entry()), List.of(revoked));
+        TrustBundle layered = full.withDelta(delta, pinned);
+
+        assertTrue(layered.findLeaf(old.id) >= 0);
+        assertTrue(layered.findLeaf(added.id) >= 0);
+        assertEquals(-1, full.findLeaf(added.id));
+        assertTrue(layered.isRevoked(revoked));
+        assertFalse(full.isRevoked(revoked));
+        assertEquals(31, layered.watermarks().getRevocationSeq());
+        assertEquals("baseCreatedAt=11&baseLeafWatermark=21&baseRevocationSeq=31", layered.deltaQuery());
+
+        // a delta only applies to the exact bundle it was exported against, and is not a bundle on its own
+        assertThrows(GeneralSecurityException.class, () -> layered.withDelta(delta, pinned));
+        assertThrows(GeneralSecurityException.class, () -> TrustBundle.open(delta, pinned));
+        Path full2 = write("full2.sqtb", next, null, List.of(), List.of());
+        assertThrows(GeneralSecurityException.class, () -> full.withDelta(full2, pinned));
+    }
+
+    @Test
+    void rejectsTamperedOrUnpinnedBundles() throws Exception {
+        LeafFixture leaf = new LeafFixture("ROOT-1", root1);
+        Path file = write("full.sqtb", new TrustBundle.Watermarks(1, 1, 1), null, List.of(leaf.entry()), List.of());
+
+        assertThrows(GeneralSecurityException.class, () -> TrustBundle.open(file, List.of(root2.getPublic().getEncoded())));
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[TrustBundle.HEADER_BYTES + 40] ^= 1;
+        Path tampered = Files.write(dir.resolve("tampered.sqtb"), bytes);
+        assertThrows(GeneralSecurityException.class, () -> TrustBundle.open(tampered, List.of(root1.getPublic().getEncoded())));
+
+        Path junk = Files.write(dir.resolve("junk.sqtb"), new byte[200]);
+        assertThrows(GeneralSecurityException.class, () -> TrustBundle.open(junk, List.of(root1.getPublic().getEncoded())));
+    }
+
+    // roots ROOT-1 (signer) and ROOT-2
+    private Path write(String name, TrustBundle.Watermarks watermarks, TrustBundle.Watermarks base,
+                       List<TrustBundleWriter.Leaf> leaves, List<byte[]> revocations) throws Exception {
+        LinkedHashMap<String, byte[]> roots = new LinkedHashMap<>();
+        roots.put("ROOT-1", root1.getPublic().getEncoded());
+        roots.put("ROOT-2", root2.getPublic().getEncoded());
+        byte[] bundle = TrustBundleWriter.write(watermarks, base, roots, "ROOT-1", leaves, revocations,
+                content -> RevocationFingerprintTest.sign(root1, content));
+        return Files.write(dir.resolve(name), bundle);
+    }
+
+    private static final class LeafFixture {
+        final UUID id = UUID.randomUUID();
+        final String issuerId;
+        final byte[] publicKey;
+        final byte[] issuerSignature;
+
+        LeafFixture(String issuerId, KeyPair issuer) throws Exception {
+            this.issuerId = issuerId;
+            this.publicKey = keyPair().getPublic().getEncoded();
+            this.issuerSignature = RevocationFingerprintTest.sign(issuer, SignedQrVerifier.chainMessage(publicKey));
+        }
+
+        TrustBundleWriter.Leaf entry() {
+            return new TrustBundleWriter.Leaf(id, issuerId, publicKey, issuerSignature);
+        }
+    }
+
+    private static KeyPair keyPair() {
+        try {
+            return RevocationFingerprintTest.keyPair();
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static MessageDigest sha256() throws Exception {
+        return MessageDigest.getInstance("SHA-256");
+    }
+}